@@ -0,0 +1,23 @@
+@echo off
+rem Build and run the JMH benchmarks; see run.sh and README.md. Extra arguments go to JMH.
+rem Needs JDK 21: the application sources use virtual threads.
+setlocal enabledelayedexpansion
+cd /d "%~dp0"
+set CP=
+for %%j in (lib\*.jar) do set CP=!CP!;%%~fj
+if "%CP%"=="" (
+  echo No jars in bench\lib; see bench\README.md
+  exit /b 1
+)
+
+if exist build rmdir /s /q build
+mkdir build\classes 2>nul
+if not exist work mkdir work
+if not exist results mkdir results
+dir /s /b ..\src\*.java src\*.java | findstr /v /e "module-info.java" > build\sources.txt
+javac -encoding UTF-8 -d build\classes -cp "%CP%" -processorpath "%CP%" @build\sources.txt || exit /b 1
+jar --create --file build\benchmarks.jar -C build\classes . || exit /b 1
+
+for /f %%t in ('powershell -NoProfile -Command "Get-Date -Format yyyyMMdd-HHmmss"') do set STAMP=%%t
+cd work
+java -cp "..\build\benchmarks.jar%CP%" org.openjdk.jmh.Main -rf json -rff "..\results\%STAMP%.json" %*
@@ -0,0 +1,26 @@
+#!/bin/sh
+# Build and run the JMH benchmarks against the application sources in ../src.
+#
+# Needs JDK 21 (the application sources use virtual threads) and the JMH jars in bench/lib (see README.md). Extra arguments go to JMH,
+# e.g. a benchmark regex and parameters:
+#
+#   ./run.sh AssignmentStoreBench -p assignments=100000
+#
+# Results are written as JSON to bench/results/<timestamp>.json.
+
+cd "$(dirname "$0")" || exit 1
+CP="$(ls "$PWD"/lib/*.jar 2>/dev/null | tr '\n' ':')"
+if [ -z "$CP" ]; then
+  echo "No jars in bench/lib; see bench/README.md" >&2
+  exit 1
+fi
+
+rm -rf build && mkdir -p build/classes work results || exit 1
+javac -encoding UTF-8 -d build/classes -cp "$CP" -processorpath "$CP" \
+  $(find ../src src -name '*.java' ! -name module-info.java) || exit 1
+jar --create --file build/benchmarks.jar -C build/classes . || exit 1
+
+# the stores read resources/ relative to the working directory, so never run from the app folder
+cd work || exit 1
+exec java -cp "../build/benchmarks.jar:$CP" org.openjdk.jmh.Main \
+  -rf json -rff "../results/$(date +%Y%m%d-%H%M%S).json" "$@"
@@ -0,0 +1,53 @@
+package com.college.docs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AssignmentStore: the one-time load (import of resources/assignments.txt into the mapped
+ * table, then a full scan) and the per-row lookup the admin table does for every document.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AssignmentStoreBench {
+
+    @Param({"10000", "100000", "1000000"})
+    public int assignments;
+
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void writeStore() throws IOException {
+        // every id assigned to one of 50 admins, no superseded records, so no compaction kicks in
+        BenchFiles.writeLines(Paths.get("resources", "assignments.txt"), assignments,
+                i -> (i + 1) + "|" + BenchFiles.adminEmail(i % 50));
+        Files.deleteIfExists(Paths.get("resources", "assignments.dat"));
+        random = new SplittableRandom(42);
+    }
+
+    /** Cold load: the store is read once per JVM, so every measurement is a fresh fork. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(value = 5, jvmArgsAppend = "-Djava.awt.headless=true")
+    public int loadAll() {
+        return AssignmentStore.loadAll().size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String getAssignedAdmin() {
+        // a quarter of the lookups miss, like documents that were never assigned
+        return AssignmentStore.getAssignedAdmin(1 + random.nextInt(assignments + assignments / 3));
+    }
+}
@@ -0,0 +1,67 @@
+package com.college.docs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Test data for the benchmarks. The stores use paths relative to the working directory, so
+ * benchmarks must run from bench/work (run.sh does that), never from the application folder.
+ */
+final class BenchFiles {
+
+    static final Path DATA = Paths.get("bench-data");
+
+    private BenchFiles() {}
+
+    static void checkWorkDir() {
+        if (Files.exists(Paths.get("uploaded_docs")) || Files.exists(Paths.get("src", "com", "college"))) {
+            throw new IllegalStateException("Run the benchmarks from bench/work; they overwrite files under resources/");
+        }
+    }
+
+    /** Replace a store file with count generated lines. */
+    static void writeLines(Path file, int count, IntFunction<String> line) throws IOException {
+        checkWorkDir();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                w.write(line.apply(i));
+                w.newLine();
+            }
+        }
+    }
+
+    static String adminEmail(int i) {
+        return "admin" + i + "@example.com";
+    }
+
+    /** A file of pseudo-random bytes, created once and reused by later runs. */
+    static Path randomFile(long megabytes) throws IOException {
+        checkWorkDir();
+        Files.createDirectories(DATA);
+        Path file = DATA.resolve("random-" + megabytes + "mb.bin");
+        long size = megabytes << 20;
+        if (Files.exists(file) && Files.size(file) == size) return file;
+        SplittableRandom random = new SplittableRandom(megabytes);
+        ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < size; written += buf.capacity()) {
+                buf.clear();
+                while (buf.remaining() >= 8) buf.putLong(random.nextLong());
+                buf.flip();
+                while (buf.hasRemaining()) out.write(buf);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,45 @@
+package com.college.docs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload fingerprinting: hashing alone (what the duplicate check used to do before copying) and
+ * the single-pass hash-and-copy the upload does now. Divide the file size by the score for MB/s.
+ * The 4 GB case needs as much free disk and takes minutes; pass -p sizeMb=1,64 for quick runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FileHashBench {
+
+    @Param({"1", "64", "1024", "4096"})
+    public long sizeMb;
+
+    private Path source;
+    private Path stagingDir;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        source = BenchFiles.randomFile(sizeMb);
+        stagingDir = BenchFiles.DATA.resolve("staging");
+    }
+
+    @Benchmark
+    public String sha256Hex() throws IOException {
+        return UploadPipeline.sha256Hex(source);
+    }
+
+    @Benchmark
+    public String stage() throws IOException {
+        UploadPipeline.Staged staged = UploadPipeline.stage(source, stagingDir);
+        staged.discard();
+        return staged.hash;
+    }
+}
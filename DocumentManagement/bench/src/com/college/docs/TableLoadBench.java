@@ -0,0 +1,73 @@
+package com.college.docs;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.table.DefaultTableModel;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The admin table load without the database: building rows with AdminDashboard.toTableRow
+ * (assignment and verification lookups) and appending them to the table model the way
+ * loadNextPage does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TableLoadBench {
+
+    private static final String[] COLUMNS = {"Select", "ID", "User Email", "Filename", "File Path",
+            "Assigned To", "Assigned Verified", "Status", "Uploaded At", "Hash"};
+    private static final String[] STATUSES = {"PENDING", "APPROVED", "REJECTED"};
+
+    @Param({"100000"})
+    public int rows;
+
+    private List<DocumentRow> documents;
+    private List<Object[]> tableRows;
+
+    @Setup(Level.Trial)
+    public void createRows() throws IOException {
+        // two thirds of the documents are assigned, to 50 admins of which 10 are verified
+        BenchFiles.writeLines(Paths.get("resources", "assignments.txt"), rows * 2 / 3,
+                i -> (i + 1) + "|" + BenchFiles.adminEmail(i % 50));
+        BenchFiles.writeLines(Paths.get("resources", "verified_admins.txt"), 10, BenchFiles::adminEmail);
+        documents = new ArrayList<>(rows);
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= rows; i++) {
+            documents.add(new DocumentRow(i, "user" + (i % 2000) + "@example.com", "report-" + i + ".pdf",
+                    "uploaded_docs/blobs/ab/" + i, STATUSES[i % 3], new Timestamp(now - i * 1000L),
+                    String.format("%064x", i)));
+        }
+        tableRows = buildRows();
+    }
+
+    @Benchmark
+    public List<Object[]> buildRows() {
+        List<Object[]> out = new ArrayList<>(documents.size());
+        for (DocumentRow d : documents) out.add(AdminDashboard.toTableRow(d));
+        return out;
+    }
+
+    @Benchmark
+    public DefaultTableModel fillModel() {
+        DefaultTableModel model = new DefaultTableModel(COLUMNS, 0);
+        Map<Integer, Integer> rowIndex = new HashMap<>();
+        for (Object[] row : tableRows) {
+            Integer id = (Integer) row[1];
+            if (rowIndex.containsKey(id)) continue;
+            rowIndex.put(id, model.getRowCount());
+            model.addRow(row);
+        }
+        return model;
+    }
+}
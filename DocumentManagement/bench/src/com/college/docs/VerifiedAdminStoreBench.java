@@ -0,0 +1,47 @@
+package com.college.docs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** VerifiedAdminStore.isVerified, called once per table row for the "Assigned Verified" column. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class VerifiedAdminStoreBench {
+
+    @Param({"10", "1000"})
+    public int verifiedAdmins;
+
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void writeStore() throws IOException {
+        BenchFiles.writeLines(Paths.get("resources", "verified_admins.txt"), verifiedAdmins, BenchFiles::adminEmail);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public boolean isVerified() {
+        // half of the lookups are for admins that are not verified
+        return VerifiedAdminStore.isVerified(BenchFiles.adminEmail(random.nextInt(verifiedAdmins * 2)));
+    }
+
+    /** Per-thread random source for the contended benchmark. */
+    @State(Scope.Thread)
+    public static class Caller {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean isVerifiedContended(Caller caller) {
+        return VerifiedAdminStore.isVerified(BenchFiles.adminEmail(caller.random.nextInt(verifiedAdmins * 2)));
+    }
+}
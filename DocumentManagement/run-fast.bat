@@ -0,0 +1,13 @@
+@echo off
+rem Start the desktop client with an application class-data sharing (AppCDS) archive.
+rem CDS only archives classes from jars, so the classes are packed into dms-app.jar first.
+rem Delete dms-app.jar after recompiling so it is rebuilt. The first run writes dms-app.jsa
+rem on exit; later runs map it instead of re-loading those classes. Requires JDK 21+.
+rem Set MYSQL_JAR to the MySQL Connector/J jar and CLASSES to the class folder.
+
+cd /d "%~dp0"
+if "%CLASSES%"=="" set CLASSES=bin
+if "%MYSQL_JAR%"=="" set MYSQL_JAR=lib\mysql-connector-j.jar
+if not exist dms-app.jar jar --create --file dms-app.jar -C "%CLASSES%" .
+
+java -XX:SharedArchiveFile=dms-app.jsa -XX:+AutoCreateSharedArchive -cp "dms-app.jar;%MYSQL_JAR%" com.college.docs.LoginGUI %*
@@ -0,0 +1,26 @@
+#!/bin/sh
+# Start the desktop client with an application class-data sharing (AppCDS) archive.
+#
+# CDS only archives classes loaded from jar files, so the compiled classes are packed into
+# dms-app.jar first (again only when a class file is newer than the jar). The first run
+# records every class the app loads and writes dms-app.jsa on exit; later runs map that archive
+# instead of parsing and verifying those classes again. The JVM recreates the archive by
+# itself when the JDK or the jars change. Requires JDK 21+, which the sources need for virtual threads.
+#
+#   MYSQL_JAR=/path/to/mysql-connector-j.jar ./run-fast.sh
+#
+# Classes are expected in bin/ (the Eclipse output folder); set CLASSES to override.
+
+cd "$(dirname "$0")" || exit 1
+CLASSES="${CLASSES:-bin}"
+MYSQL_JAR="${MYSQL_JAR:-lib/mysql-connector-j.jar}"
+
+if [ ! -f dms-app.jar ] || [ -n "$(find "$CLASSES" -name '*.class' -newer dms-app.jar | head -n 1)" ]; then
+  jar --create --file dms-app.jar -C "$CLASSES" . || exit 1
+fi
+
+exec java \
+  -XX:SharedArchiveFile=dms-app.jsa \
+  -XX:+AutoCreateSharedArchive \
+  -cp "dms-app.jar:$MYSQL_JAR" \
+  com.college.docs.LoginGUI "$@"
@@ -7,7 +7,9 @@ import java.awt.*;
 import java.io.File;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.awt.Desktop;
 // Image IO handled via ImageIcon path-based loading; explicit ImageIO/BufferedImage imports removed
 
@@ -26,32 +28,39 @@ public class AdminDashboard extends JFrame {
     private JLabel rejectedCountLabel;
     private String adminEmail;
     private JLabel adminNotifyLabel; // shows number of unverified admins
+    private JComboBox<String> statusFilter;
+    private DocumentPager pager; // keyset cursor for the rows currently shown
+    private boolean pageLoading;
+    private final UiTasks tasks = new UiTasks(this);
+    private final DeltaTracker delta = new DeltaTracker(null);
+    private final Map<Integer, Integer> rowIndex = new HashMap<>(); // id -> model row
+    private boolean deltaRunning; // EDT only
+    private boolean refreshQueued;
+
+    private static final int PAGE_SIZE = 200;
+    private static final int REFRESH_INTERVAL_MS = 15000;
 
     public AdminDashboard(String adminEmail) {
         setTitle("Admin Dashboard - Pending Documents");
         this.adminEmail = adminEmail;
         setExtendedState(JFrame.MAXIMIZED_BOTH);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        // Ensure programmatic background and document overlay exist and set background as content pane
-        ImagePlaceholderGenerator.generateBackgroundIfMissing("resources/background.jpg");
-        ImagePlaceholderGenerator.generateIfMissing("resources/document.png");
+        // Background and document overlay are generated if missing (off the EDT); background is the content pane
         try {
-            ImageIcon bgIcon = new ImageIcon("resources/background.jpg");
             Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
-            Image bg = bgIcon.getImage().getScaledInstance(screen.width, screen.height, Image.SCALE_SMOOTH);
-            JLabel background = new JLabel(new ImageIcon(bg));
+            // decoded and scaled once per process; shown as soon as it is ready (see ImageAssets)
+            JLabel background = new JLabel();
+            ImagePlaceholderGenerator.bind(background, "resources/background.jpg", screen.width, screen.height);
             background.setLayout(new BorderLayout());
 
             // Prepare right-side overlay: white stats box + document image
             try {
-                ImageIcon docIcon = new ImageIcon("resources/document.png");
-                // Reduce the document image to make more room for the table
-                int docW = Math.max(220, (int) (screen.width * 0.18));
-                int docH = Math.max(240, (int) (screen.height * 0.38));
-                Image doc = docIcon.getImage().getScaledInstance(docW, docH, Image.SCALE_SMOOTH);
-                JLabel docLabel = new JLabel(new ImageIcon(doc));
+                Dimension docSize = documentImageSize(screen);
+                int docW = docSize.width;
+                int docH = docSize.height;
+                JLabel docLabel = new JLabel();
+                ImagePlaceholderGenerator.bind(docLabel, "resources/document.png", docW, docH);
                 docLabel.setOpaque(false);
-                docLabel.setPreferredSize(new Dimension(docW, docH));
 
                 JPanel eastPanel = new JPanel(new BorderLayout());
                 eastPanel.setOpaque(false);
@@ -127,7 +136,7 @@ public class AdminDashboard extends JFrame {
         // Note: admin counts (Pending/Approved/Rejected) are shown in the right-side white stats box
 
         // Table setup (include Assigned To and Assigned Verified so users can see if assigned admin is verified)
-        String[] columns = {"Select", "ID", "User Email", "Filename", "File Path", "Assigned To", "Assigned Verified", "Status", "Uploaded At"};
+        String[] columns = {"Select", "ID", "User Email", "Filename", "File Path", "Assigned To", "Assigned Verified", "Status", "Uploaded At", "Hash"};
         tableModel = new DefaultTableModel(columns, 0) {
             @Override
             public Class<?> getColumnClass(int column) {
@@ -138,17 +147,63 @@ public class AdminDashboard extends JFrame {
         table.setFont(new Font("Arial", Font.PLAIN, 20));
         table.setRowHeight(35);
         table.getColumnModel().getColumn(0).setMaxWidth(50); // Checkbox column width
+        table.removeColumn(table.getColumnModel().getColumn(9)); // hash_value stays in the model only, for previews
         JScrollPane tableScroll = new JScrollPane(table);
         tableScroll.setOpaque(false);
         tableScroll.getViewport().setOpaque(false);
         // Encourage the table area to use more space than the right-side panel
         try {
             Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
-            int preferW = Math.max(800, screen.width - (table.getColumnModel().getColumnCount() * 80) - 380);
+            int preferW = Math.max(800, screen.width - (table.getColumnModel().getColumnCount() * 80) - 380 - PreviewService.THUMB_WIDTH);
             int preferH = Math.max(400, screen.height - 220);
             tableScroll.setPreferredSize(new Dimension(preferW, preferH));
         } catch (Exception ignore) {}
-        add(tableScroll, BorderLayout.CENTER);
+        // Preview of the highlighted document next to the table
+        PreviewPanel previewPanel = new PreviewPanel();
+        JSplitPane tableSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, tableScroll, previewPanel);
+        tableSplit.setResizeWeight(1.0);
+        tableSplit.setOpaque(false);
+        add(tableSplit, BorderLayout.CENTER);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) return;
+            int r = table.getSelectedRow();
+            if (r < 0) {
+                previewPanel.clear();
+                return;
+            }
+            previewPanel.showDocument((String) tableModel.getValueAt(r, 3), (String) tableModel.getValueAt(r, 4),
+                    (String) tableModel.getValueAt(r, 9));
+        });
+        // Fetch the next page when the user scrolls near the bottom of what is loaded
+        tableScroll.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            int threshold = table.getRowHeight() * (PAGE_SIZE / 4);
+            if (bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - threshold) loadNextPage();
+        });
+
+        // Status filter (pushed into SQL); "All" shows pending first
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.setOpaque(false);
+        JLabel filterLabel = new JLabel("Show:");
+        filterLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        filterLabel.setForeground(Color.WHITE);
+        statusFilter = new JComboBox<>(new String[]{"All", "PENDING", "APPROVED", "REJECTED"});
+        statusFilter.setFont(new Font("Arial", Font.PLAIN, 18));
+        statusFilter.addActionListener(e -> loadDocuments());
+        filterPanel.add(filterLabel);
+        filterPanel.add(statusFilter);
+
+        // Full-text search inside the stored files (see SearchIndex)
+        JTextField searchField = new JTextField(22);
+        searchField.setFont(new Font("Arial", Font.PLAIN, 18));
+        JButton searchButton = new JButton("Search Contents");
+        searchButton.setFont(new Font("Arial", Font.BOLD, 16));
+        searchButton.addActionListener(e -> searchContents(searchField.getText()));
+        searchField.addActionListener(e -> searchContents(searchField.getText()));
+        filterPanel.add(Box.createHorizontalStrut(20));
+        filterPanel.add(searchField);
+        filterPanel.add(searchButton);
+        add(filterPanel, BorderLayout.NORTH);
 
         // Row coloring for status
         table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
@@ -199,6 +254,17 @@ public class AdminDashboard extends JFrame {
         manageAdminsButton.setForeground(Color.WHITE);
         manageAdminsButton.setFocusPainted(false);
         buttonPanel.add(manageAdminsButton);
+        JButton diagnosticsButton = new JButton("Diagnostics");
+        diagnosticsButton.setFont(new Font("Arial", Font.BOLD, 16));
+        diagnosticsButton.setFocusPainted(false);
+        diagnosticsButton.setToolTipText("Live latencies of database, store and transfer operations");
+        diagnosticsButton.addActionListener(e -> new DiagnosticsDialog(this).setVisible(true));
+        buttonPanel.add(diagnosticsButton);
+        JProgressBar busyBar = new JProgressBar();
+        busyBar.setIndeterminate(true);
+        busyBar.setPreferredSize(new Dimension(120, 18));
+        buttonPanel.add(busyBar);
+        tasks.setBusyIndicator(busyBar);
         add(buttonPanel, BorderLayout.SOUTH);
 
         // Button actions
@@ -207,180 +273,297 @@ public class AdminDashboard extends JFrame {
         viewButton.addActionListener(e -> viewFile()); // Action for viewing file
         manageAdminsButton.addActionListener(e -> openManageAdminsDialog());
 
-        // Restrict "Manage Admins" to the super-admin (first admin in DB)
-        String superAdminEmail = getSuperAdminEmail();
-        if (superAdminEmail != null && !superAdminEmail.equalsIgnoreCase(this.adminEmail)) {
-            manageAdminsButton.setEnabled(false);
-            manageAdminsButton.setToolTipText("Only super-admin (" + superAdminEmail + ") can manage admin verifications");
-        } else {
-            manageAdminsButton.setEnabled(true);
-            manageAdminsButton.setToolTipText("Open admin verification manager (super-admin)");
-        }
+        // Restrict "Manage Admins" to the super-admin (first admin in DB); disabled until we know
+        manageAdminsButton.setEnabled(false);
+        tasks.run(this::getSuperAdminEmail, superAdminEmail -> {
+            if (superAdminEmail != null && !superAdminEmail.equalsIgnoreCase(this.adminEmail)) {
+                manageAdminsButton.setEnabled(false);
+                manageAdminsButton.setToolTipText("Only super-admin (" + superAdminEmail + ") can manage admin verifications");
+            } else {
+                manageAdminsButton.setEnabled(true);
+                manageAdminsButton.setToolTipText("Open admin verification manager (super-admin)");
+            }
+        });
 
-        loadDocuments();
+        // mark the delta high-water before the first page so later changes are not missed
+        deltaRunning = true;
+        tasks.run(() -> {
+            delta.prime();
+            return null;
+        }, ignored -> {
+            deltaRunning = false;
+            loadDocuments();
+        }, e -> {
+            deltaRunning = false;
+            e.printStackTrace();
+            loadDocuments();
+        });
+        javax.swing.Timer refreshTimer = new javax.swing.Timer(REFRESH_INTERVAL_MS, ev -> refreshDocuments());
+        refreshTimer.start();
+        tasks.onClose(refreshTimer::stop);
+        Runnable countsChanged = () -> SwingUtilities.invokeLater(this::updateCounts);
+        StatusCounters.addListener(countsChanged);
+        tasks.onClose(() -> StatusCounters.removeListener(countsChanged));
+        // index files uploaded before the content index existed (or while it was not running)
+        SearchIndex.catchUpInBackground();
+        Diagnostics.startEdtWatchdog(); // no-op when LoginGUI already started it
         // Show number of unverified admins to allowed viewers; poll every 30 seconds to update
         checkUnverifiedAdmins();
         javax.swing.Timer tick = new javax.swing.Timer(30000, ev -> checkUnverifiedAdmins());
         tick.setRepeats(true);
         tick.start();
+        tasks.onClose(tick::stop);
+    }
+
+    // Reduce the document image to make more room for the table
+    private static Dimension documentImageSize(Dimension screen) {
+        return new Dimension(Math.max(220, (int) (screen.width * 0.18)), Math.max(240, (int) (screen.height * 0.38)));
+    }
+
+    /** Decode and scale this window's images ahead of time, e.g. while the user logs in. */
+    static void prefetchImages() {
+        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        Dimension doc = documentImageSize(screen);
+        ImageAssets.prefetch("resources/background.jpg", screen.width, screen.height);
+        ImageAssets.prefetch("resources/document.png", doc.width, doc.height);
+    }
+
+    // Verification state of one admin, looked up off the EDT for the manage dialog
+    private static final class AdminEntry {
+        final String email;
+        final boolean verified;
+
+        AdminEntry(String email, boolean verified) {
+            this.email = email;
+            this.verified = verified;
+        }
     }
 
     // Manage admin verification: list admins and toggle verification
     private void openManageAdminsDialog() {
-        try {
-            Connection con = DBConnection.getConnection();
-            String sql = "SELECT email FROM users WHERE role='ADMIN'"; // do not change DB schema
-            PreparedStatement pst = con.prepareStatement(sql);
-            ResultSet rs = pst.executeQuery();
-
-            java.util.List<String> admins = new java.util.ArrayList<>();
-            while (rs.next()) admins.add(rs.getString("email"));
+        String[] superAdmin = new String[1];
+        tasks.run(() -> {
+            superAdmin[0] = getSuperAdminEmail();
+            java.util.List<AdminEntry> entries = new java.util.ArrayList<>();
+            for (String a : listAdminEmails()) entries.add(new AdminEntry(a, VerifiedAdminStore.isVerified(a)));
+            return entries;
+        }, entries -> showManageAdminsDialog(entries, superAdmin[0]), ex -> {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading admin list from DB");
+        });
+    }
 
-            if (admins.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No admin accounts found.");
-                return;
-            }
+    private void showManageAdminsDialog(java.util.List<AdminEntry> admins, String superAdminEmail) {
+        if (admins.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No admin accounts found.");
+            return;
+        }
 
-            JPanel panel = new JPanel();
-            panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-            java.util.Map<String, JCheckBox> map = new java.util.HashMap<>();
-            boolean allowEdit = this.adminEmail != null && this.adminEmail.equalsIgnoreCase(getSuperAdminEmail());
-            for (String a : admins) {
-                boolean v = VerifiedAdminStore.isVerified(a);
-                if (allowEdit) {
-                    JCheckBox cb = new JCheckBox(a + (v ? " (Verified)" : " (Not Verified)"), v);
-                    panel.add(cb);
-                    map.put(a, cb);
-                } else {
-                    JLabel lab = new JLabel(a + (v ? " (Verified)" : " (Not Verified)"));
-                    lab.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
-                    panel.add(lab);
-                }
-            }
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        java.util.Map<String, JCheckBox> map = new java.util.HashMap<>();
+        boolean allowEdit = this.adminEmail != null && this.adminEmail.equalsIgnoreCase(superAdminEmail);
+        for (AdminEntry a : admins) {
+            boolean v = a.verified;
             if (allowEdit) {
-                int res = JOptionPane.showConfirmDialog(this, new JScrollPane(panel), "Manage Admin Verifications", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
-                if (res == JOptionPane.OK_OPTION) {
-                    for (String a : admins) {
-                        JCheckBox cb = map.get(a);
-                        try {
-                            if (cb.isSelected()) VerifiedAdminStore.addVerified(a);
-                            else VerifiedAdminStore.removeVerified(a);
-                        } catch (Exception e) {
-                            // ignore file errors per design
-                            e.printStackTrace();
-                        }
-                    }
-                    // Clear pending registrations for any admin that is now verified
-                    for (String a : admins) {
-                        if (VerifiedAdminStore.isVerified(a)) PendingAdminStore.clearPendingFor(a);
-                    }
-                    JOptionPane.showMessageDialog(this, "Verification changes saved.");
-                    checkUnverifiedAdmins();
-                    loadDocuments();
-                }
+                JCheckBox cb = new JCheckBox(a.email + (v ? " (Verified)" : " (Not Verified)"), v);
+                panel.add(cb);
+                map.put(a.email, cb);
             } else {
-                JOptionPane.showMessageDialog(this, new JScrollPane(panel), "Registered Admins (view-only)", JOptionPane.PLAIN_MESSAGE);
+                JLabel lab = new JLabel(a.email + (v ? " (Verified)" : " (Not Verified)"));
+                lab.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
+                panel.add(lab);
             }
-
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading admin list from DB");
         }
+        if (!allowEdit) {
+            JOptionPane.showMessageDialog(this, new JScrollPane(panel), "Registered Admins (view-only)", JOptionPane.PLAIN_MESSAGE);
+            return;
+        }
+        int res = JOptionPane.showConfirmDialog(this, new JScrollPane(panel), "Manage Admin Verifications", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (res != JOptionPane.OK_OPTION) return;
+
+        java.util.Map<String, Boolean> selection = new java.util.LinkedHashMap<>();
+        for (AdminEntry a : admins) selection.put(a.email, map.get(a.email).isSelected());
+        tasks.run(() -> {
+            try {
+                VerifiedAdminStore.setVerified(selection);
+            } catch (Exception ex) {
+                // ignore file errors per design
+                ex.printStackTrace();
+            }
+            // Clear pending registrations for any admin that is now verified (one batched write)
+            java.util.List<String> nowVerified = new java.util.ArrayList<>();
+            for (String a : selection.keySet()) {
+                if (VerifiedAdminStore.isVerified(a)) nowVerified.add(a);
+            }
+            PendingAdminStore.clearPendingFor(nowVerified);
+            return null;
+        }, ignored -> {
+            JOptionPane.showMessageDialog(this, "Verification changes saved.");
+            checkUnverifiedAdmins();
+            // only the "Assigned Verified" column depends on this; recompute it from the in-memory store
+            for (int r = 0; r < tableModel.getRowCount(); r++) {
+                tableModel.setValueAt(verifiedLabel((String) tableModel.getValueAt(r, 5)), r, 6);
+            }
+        });
     }
 
-    // Load pending documents from DB
+    // Reload from the first page for the selected status filter
     private void loadDocuments() {
-        try {
-            Connection con = DBConnection.getConnection();
-            String sql = "SELECT * FROM documents";
-            PreparedStatement pst = con.prepareStatement(sql);
-            ResultSet rs = pst.executeQuery();
-
-            tableModel.setRowCount(0); // clear table
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String assigned = AssignmentStore.getAssignedAdmin(id);
-                Object[] row = {
-                    false, // Checkbox for selection
-                    id,
-                    rs.getString("user_email"),
-                    rs.getString("filename"),
-                    rs.getString("file_path"),
-                    assigned,
-                    (assigned == null || assigned.trim().isEmpty()) ? "N/A" : (VerifiedAdminStore.isVerified(assigned) ? "Yes" : "No"),
-                    rs.getString("status"),
-                    rs.getTimestamp("uploaded_at")
-                };
+        String selected = statusFilter == null ? "All" : String.valueOf(statusFilter.getSelectedItem());
+        pager = new DocumentPager("All".equals(selected) ? null : selected, PAGE_SIZE);
+        tableModel.setRowCount(0); // clear table
+        rowIndex.clear();
+        loadNextPage();
+        updateCounts();
+    }
+
+    // Append the next keyset page to the table, if there is one
+    private void loadNextPage() {
+        DocumentPager current = pager;
+        if (current == null || !current.hasMore() || pageLoading) return;
+        pageLoading = true;
+        tasks.run(() -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (DocumentRow d : current.nextPage()) rows.add(toTableRow(d));
+            return rows;
+        }, rows -> {
+            pageLoading = false;
+            if (current != pager) { // filter changed or reloaded meanwhile
+                loadNextPage();
+                return;
+            }
+            for (Object[] row : rows) {
+                Integer id = (Integer) row[1];
+                if (rowIndex.containsKey(id)) continue; // already added by a delta refresh
+                rowIndex.put(id, tableModel.getRowCount());
                 tableModel.addRow(row);
             }
-
-            updateCounts();
-
-        } catch (SQLException ex) {
+        }, ex -> {
+            pageLoading = false;
             ex.printStackTrace();
+            if (current == pager) pager = null; // stop paging until the next full reload
             JOptionPane.showMessageDialog(this, "Error loading documents!");
-        }
+        });
     }
 
-    private void updateCounts() {
-        try {
-            Connection con = DBConnection.getConnection();
-            String sql = "SELECT status, COUNT(*) as cnt FROM documents GROUP BY status";
-            PreparedStatement pst = con.prepareStatement(sql);
-            ResultSet rs = pst.executeQuery();
-
-            int pending = 0, approved = 0, rejected = 0;
-            while (rs.next()) {
-                String status = rs.getString("status");
-                int cnt = rs.getInt("cnt");
-                if ("PENDING".equalsIgnoreCase(status)) pending = cnt;
-                else if ("APPROVED".equalsIgnoreCase(status)) approved = cnt;
-                else if ("REJECTED".equalsIgnoreCase(status)) rejected = cnt;
-            }
+    // Runs off the EDT: assignment and verification lookups for one row
+    static Object[] toTableRow(DocumentRow d) {
+        String assigned = AssignmentStore.getAssignedAdmin(d.id);
+        return new Object[]{
+            false, // Checkbox for selection
+            d.id,
+            d.userEmail,
+            d.filename,
+            d.filePath,
+            assigned,
+            verifiedLabel(assigned),
+            d.status,
+            d.uploadedAt,
+            d.hashValue // hidden column
+        };
+    }
 
-            pendingCountLabel.setText(formatStatText("PENDING", pending));
-            approvedCountLabel.setText(formatStatText("APPROVED", approved));
-            rejectedCountLabel.setText(formatStatText("REJECTED", rejected));
+    private static String verifiedLabel(String assigned) {
+        if (assigned == null || assigned.trim().isEmpty()) return "N/A";
+        return VerifiedAdminStore.isVerified(assigned) ? "Yes" : "No";
+    }
 
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+    // Fetch only rows added or changed since the last refresh and patch them into the table
+    private void refreshDocuments() {
+        if (deltaRunning) {
+            refreshQueued = true;
+            return;
         }
+        deltaRunning = true;
+        refreshQueued = false;
+        tasks.run(() -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (DocumentRow d : delta.poll()) rows.add(toTableRow(d));
+            return rows;
+        }, rows -> {
+            deltaRunning = false;
+            String filter = pager == null ? null : pager.getStatusFilter();
+            for (Object[] row : rows) {
+                Integer id = (Integer) row[1];
+                String status = (String) row[7];
+                boolean matches = filter == null || filter.equalsIgnoreCase(status);
+                Integer index = rowIndex.get(id);
+                if (index != null && !status.equalsIgnoreCase((String) tableModel.getValueAt(index, 7))) {
+                    // changed by another client, or by another view here (StatusCounters ignores a repeat);
+                    // rows outside the table are left to the periodic reconcile
+                    StatusCounters.recordTransition(id, (String) row[2], (String) tableModel.getValueAt(index, 7), status);
+                }
+                if (index == null) {
+                    // new upload, or a row that moved into the filtered status
+                    if (matches) {
+                        rowIndex.put(id, tableModel.getRowCount());
+                        tableModel.addRow(row);
+                    }
+                } else if (!matches) {
+                    tableModel.removeRow(index);
+                    reindexRows(); // rows below shifted up
+                } else {
+                    for (int c = 2; c < row.length; c++) { // keep the checkbox as the admin left it
+                        if (!java.util.Objects.equals(tableModel.getValueAt(index, c), row[c])) tableModel.setValueAt(row[c], index, c);
+                    }
+                }
+            }
+            if (refreshQueued) refreshDocuments();
+        }, e -> {
+            deltaRunning = false;
+            e.printStackTrace(); // the timer tries again
+        });
+    }
+
+    private void reindexRows() {
+        rowIndex.clear();
+        for (int r = 0; r < tableModel.getRowCount(); r++) rowIndex.put((Integer) tableModel.getValueAt(r, 1), r);
+    }
+
+    // Counts come from StatusCounters, which is kept current in memory; no GROUP BY per redraw
+    private void updateCounts() {
+        tasks.run(() -> new StatusCounters.Counts[]{StatusCounters.totals(), StatusCounters.forAdmin(adminEmail)}, counts -> {
+            pendingCountLabel.setText(formatStatText("PENDING", counts[0].pending));
+            approvedCountLabel.setText(formatStatText("APPROVED", counts[0].approved));
+            rejectedCountLabel.setText(formatStatText("REJECTED", counts[0].rejected));
+            pendingCountLabel.setToolTipText(counts[1].pending + " pending document(s) assigned to you");
+        }, Throwable::printStackTrace);
     }
 
     private String getSuperAdminEmail() {
         try {
-            Connection con = DBConnection.getConnection();
-            // Prefer explicit 'admin@example.com' if it exists, otherwise fall back to the first admin
-            String preferSql = "SELECT email FROM users WHERE role='ADMIN' AND email='admin@example.com' LIMIT 1";
-            PreparedStatement prefPst = con.prepareStatement(preferSql);
-            ResultSet prefRs = prefPst.executeQuery();
-            if (prefRs.next()) return prefRs.getString("email");
-            String sql = "SELECT email FROM users WHERE role='ADMIN' ORDER BY email ASC LIMIT 1";
-            PreparedStatement pst = con.prepareStatement(sql);
-            ResultSet rs = pst.executeQuery();
-            if (rs.next()) return rs.getString("email");
+            // admin@example.com if it is an admin, otherwise the first admin (cached, see UserDirectory)
+            String superAdmin = UserDirectory.superAdminEmail();
+            if (superAdmin != null) return superAdmin;
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return "admin@example.com"; // fall back to main admin constant to ensure there's someone asked to verify
     }
 
+    // All registered admin accounts (no DB schema changes: role column only)
+    private java.util.List<String> listAdminEmails() throws SQLException {
+        return UserDirectory.adminEmails();
+    }
+
+    // Computed off the EDT by checkUnverifiedAdmins, applied on the EDT
+    private static final class AdminNotice {
+        String text; // null hides the label
+        boolean allowEdit;
+    }
+
     private void checkUnverifiedAdmins() {
-        try {
-            Connection con = DBConnection.getConnection();
-            String sql = "SELECT email FROM users WHERE role='ADMIN'";
-            PreparedStatement pst = con.prepareStatement(sql);
-            ResultSet rs = pst.executeQuery();
-            java.util.List<String> admins = new java.util.ArrayList<>();
-            while (rs.next()) admins.add(rs.getString("email"));
+        tasks.run(() -> {
+            AdminNotice notice = new AdminNotice();
+            java.util.List<String> admins = listAdminEmails();
             java.util.List<String> unverified = new java.util.ArrayList<>();
             for (String a : admins) if (!VerifiedAdminStore.isVerified(a)) unverified.add(a);
             java.util.List<String> pending = PendingAdminStore.listPending();
-            if (unverified.isEmpty()) {
-                adminNotifyLabel.setVisible(false);
-            } else {
+            String superAdmin = getSuperAdminEmail();
+            boolean isSuper = this.adminEmail != null && this.adminEmail.equalsIgnoreCase(superAdmin);
+            if (!unverified.isEmpty()) {
                 // Show notifications to verified admins and to super-admin
-                boolean isSuper = this.adminEmail != null && this.adminEmail.equalsIgnoreCase(getSuperAdminEmail());
                 boolean isVerified = this.adminEmail != null && VerifiedAdminStore.isVerified(this.adminEmail);
                 if (isSuper || isVerified) {
                     StringBuilder sb = new StringBuilder();
@@ -390,23 +573,24 @@ public class AdminDashboard extends JFrame {
                         String joined = String.join(", ", pending.stream().map(s -> s.split(",")[0]).collect(java.util.stream.Collectors.toList()));
                         sb.append(joined);
                     }
-                    String text = "<html>" + sb.toString().replace("\n", "<br/>") + "</html>";
-                    adminNotifyLabel.setText(text);
-                    adminNotifyLabel.setVisible(true);
-                } else {
-                    adminNotifyLabel.setVisible(false);
+                    notice.text = "<html>" + sb.toString().replace("\n", "<br/>") + "</html>";
                 }
             }
             // ensure the Manage Admins button is only enabled for the super admin
-            String superAdmin = getSuperAdminEmail();
-            if (superAdmin != null) {
-                boolean allowEdit = this.adminEmail != null && superAdmin.equalsIgnoreCase(this.adminEmail);
-                if (manageAdminsButton != null) manageAdminsButton.setEnabled(allowEdit);
+            notice.allowEdit = isSuper;
+            return notice;
+        }, notice -> {
+            if (notice.text == null) {
+                adminNotifyLabel.setVisible(false);
+            } else {
+                adminNotifyLabel.setText(notice.text);
+                adminNotifyLabel.setVisible(true);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            if (manageAdminsButton != null) manageAdminsButton.setEnabled(notice.allowEdit);
+        }, ex -> {
+            ex.printStackTrace();
             adminNotifyLabel.setVisible(false);
-        }
+        });
     }
 
     private JLabel createStatLabel(String title, String value, Color bg) {
@@ -446,37 +630,107 @@ public class AdminDashboard extends JFrame {
             return;
         }
 
-        try {
-            Connection con = DBConnection.getConnection();
-            String sql = "UPDATE documents SET status=? WHERE id=?";
-            PreparedStatement pst = con.prepareStatement(sql);
-            java.util.List<Integer> allowed = new java.util.ArrayList<>();
-            java.util.List<Integer> denied = new java.util.ArrayList<>();
-            for (Integer id : idsToUpdate) {
-                String assigned = AssignmentStore.getAssignedAdmin(id);
-                if (assigned == null || assigned.trim().isEmpty() || assigned.equalsIgnoreCase(this.adminEmail)) {
-                    allowed.add(id);
-                } else {
-                    denied.add(id);
+        approveButton.setEnabled(false);
+        rejectButton.setEnabled(false);
+        tasks.run(() -> DocumentService.review(idsToUpdate, newStatus, adminEmail), outcomes -> {
+            approveButton.setEnabled(true);
+            rejectButton.setEnabled(true);
+            String filter = pager == null ? null : pager.getStatusFilter();
+            int updated = 0, denied = 0, missing = 0;
+            List<Integer> toRemove = new ArrayList<>();
+            for (Map.Entry<Integer, BulkReview.Outcome> e : outcomes.entrySet()) {
+                Integer index = rowIndex.get(e.getKey());
+                switch (e.getValue()) {
+                    case UPDATED:
+                        updated++;
+                        if (index == null) break;
+                        if (filter != null && !filter.equalsIgnoreCase(newStatus)) {
+                            toRemove.add(index);
+                        } else {
+                            tableModel.setValueAt(false, index, 0);
+                            tableModel.setValueAt(newStatus, index, 7);
+                        }
+                        break;
+                    case NOT_FOUND:
+                        missing++;
+                        if (index != null) toRemove.add(index);
+                        break;
+                    default:
+                        denied++;
                 }
             }
-            for (Integer id : allowed) {
-                pst.setString(1, newStatus);
-                pst.setInt(2, id);
-                pst.addBatch();
+            if (!toRemove.isEmpty()) {
+                toRemove.sort(java.util.Collections.reverseOrder()); // bottom-up keeps earlier indexes valid
+                for (int index : toRemove) tableModel.removeRow(index);
+                reindexRows();
             }
-            pst.executeBatch();
-            if (!denied.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "Some selected documents are assigned to other admins and were not updated.");
-            }
-
-            JOptionPane.showMessageDialog(this, "Document(s) " + newStatus + " successfully!");
-            loadDocuments(); // refresh table
 
-        } catch (SQLException e) {
+            StringBuilder msg = new StringBuilder(updated + " document(s) " + newStatus + " successfully!");
+            if (denied > 0) msg.append("\n").append(denied).append(" assigned to other admins and were not updated.");
+            if (missing > 0) msg.append("\n").append(missing).append(" no longer exist and were removed from the list.");
+            JOptionPane.showMessageDialog(this, msg.toString());
+        }, e -> {
+            approveButton.setEnabled(true);
+            rejectButton.setEnabled(true);
             e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error updating status!");
-        }
+            JOptionPane.showMessageDialog(this, "Error updating status! No documents were changed.");
+        });
+    }
+
+    private void searchContents(String query) {
+        if (query == null || query.trim().isEmpty()) return;
+        tasks.run(() -> {
+            List<SearchIndex.Hit> hits = SearchIndex.search(query, 50);
+            List<Object[]> rows = new ArrayList<>();
+            if (hits.isEmpty()) return rows;
+            StringBuilder in = new StringBuilder();
+            for (int i = 0; i < hits.size(); i++) in.append(i == 0 ? "?" : ",?");
+            Map<Integer, Object[]> byId = new HashMap<>();
+            try (Connection con = DBConnection.getConnection()) {
+                if (con == null) throw new SQLException("No database connection");
+                try (PreparedStatement pst = con.prepareStatement(
+                        "SELECT id, filename, user_email, status FROM documents WHERE id IN (" + in + ")")) {
+                    for (int i = 0; i < hits.size(); i++) pst.setInt(i + 1, hits.get(i).docId);
+                    try (ResultSet rs = pst.executeQuery()) {
+                        while (rs.next()) {
+                            byId.put(rs.getInt("id"), new Object[]{rs.getInt("id"), rs.getString("filename"),
+                                    rs.getString("user_email"), rs.getString("status"), null});
+                        }
+                    }
+                }
+            }
+            // keep the index's ranking order
+            for (SearchIndex.Hit hit : hits) {
+                Object[] row = byId.get(hit.docId);
+                if (row == null) continue;
+                row[4] = String.format("%.2f", hit.score);
+                rows.add(row);
+            }
+            return rows;
+        }, rows -> {
+            if (rows.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "No documents contain \"" + query.trim() + "\".\n("
+                        + SearchIndex.documentCount() + " documents indexed so far)");
+                return;
+            }
+            DefaultTableModel results = new DefaultTableModel(
+                    new String[]{"ID", "Filename", "User Email", "Status", "Score"}, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false;
+                }
+            };
+            for (Object[] row : rows) results.addRow(row);
+            JTable resultTable = new JTable(results);
+            resultTable.setFont(new Font("Arial", Font.PLAIN, 16));
+            resultTable.setRowHeight(28);
+            JScrollPane pane = new JScrollPane(resultTable);
+            pane.setPreferredSize(new Dimension(800, 400));
+            JOptionPane.showMessageDialog(this, pane, "Results for \"" + query.trim() + "\"", JOptionPane.PLAIN_MESSAGE);
+        }, ex -> {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Search failed:\n" + ex.getMessage());
+        });
     }
 
     // New: View selected file
@@ -503,28 +757,27 @@ public class AdminDashboard extends JFrame {
 
         Object pathObj = table.getValueAt(rowToOpen, 4); // File Path column
         String filePath = pathObj == null ? "" : String.valueOf(pathObj);
-        File file = new File(filePath);
-
-        if (!file.exists()) {
-            JOptionPane.showMessageDialog(this, "File not found on server!\nPath: " + filePath);
-            return;
-        }
-
-        try {
-            if (!Desktop.isDesktopSupported()) {
-                JOptionPane.showMessageDialog(this, "Desktop API not supported on this platform.");
-                return;
-            }
+        Object nameObj = table.getValueAt(rowToOpen, 3); // Filename column
+        File stored = new File(filePath);
+
+        // exists() and Desktop.open can both block on slow or network disks
+        tasks.run(() -> {
+            if (!stored.exists()) return "File not found on server!\nPath: " + filePath;
+            // blobs have no extension; open them under their original name so the right app is picked
+            File file = BlobStore.isBlobPath(filePath)
+                    ? BlobStore.viewCopy(stored.toPath(), nameObj == null ? null : String.valueOf(nameObj)).toFile()
+                    : stored;
+            if (!Desktop.isDesktopSupported()) return "Desktop API not supported on this platform.";
             Desktop desktop = Desktop.getDesktop();
-            if (!desktop.isSupported(Desktop.Action.OPEN)) {
-                JOptionPane.showMessageDialog(this, "Open action is not supported on this platform.");
-                return;
-            }
+            if (!desktop.isSupported(Desktop.Action.OPEN)) return "Open action is not supported on this platform.";
             desktop.open(file); // Open file with default system app
-        } catch (Exception ex) {
+            return null;
+        }, problem -> {
+            if (problem != null) JOptionPane.showMessageDialog(this, problem);
+        }, ex -> {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error opening file:\n" + ex.getMessage());
-        }
+        });
     }
 
     public static void main(String[] args) {
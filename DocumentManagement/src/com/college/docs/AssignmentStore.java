@@ -1,61 +1,159 @@
 package com.college.docs;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * docId -> assigned admin email, persisted through a {@link KeyValueStore}.
+ *
+ * With the default text backend this is the memory-mapped {@link MappedAssignmentTable}
+ * (resources/assignments.dat, seeded once from the "docId|email" journal in
+ * resources/assignments.txt), shared by every client on the machine: reads go straight to the
+ * mapping, so another process's assignments show up immediately. Every write is also appended
+ * to the journal, under its lock, so the jdbc backend's seed and the fallback used when the
+ * mapping cannot be opened never see stale assignments. Other backends are read once into
+ * memory and lookups never touch them.
+ */
 public class AssignmentStore {
-    private static final Path STORE = Paths.get("resources", "assignments.txt");
+    private static final Path JOURNAL = Paths.get("resources", "assignments.txt");
+    private static final MappedAssignmentTable MAPPED = openMapped();
+    private static final boolean SHARED = MAPPED != null;
+    private static final KeyValueStore BACKEND = SHARED ? MAPPED
+            : KeyValueStore.open("assignments", JOURNAL, TextKeyValueStore.Format.PIPE);
+    private static final TextKeyValueStore MIRROR = SHARED ? new TextKeyValueStore(JOURNAL, TextKeyValueStore.Format.PIPE) : null;
+    private static final JournalFile JOURNAL_LOCK = new JournalFile(JOURNAL);
 
-    private static void ensureStore() throws IOException {
-        Path parent = STORE.getParent();
-        if (parent != null && !Files.exists(parent)) Files.createDirectories(parent);
-        if (!Files.exists(STORE)) Files.createFile(STORE);
+    private static final Map<Integer, String> INDEX = new ConcurrentHashMap<>();
+    private static final Object WRITE_LOCK = new Object();
+    private static volatile boolean loaded;
+
+    static {
+        if (SHARED) JournalFile.runInBackground(AssignmentStore::syncJournal);
     }
 
-    public static synchronized Map<Integer, String> loadAll() {
+    private static MappedAssignmentTable openMapped() {
+        if (!"text".equals(KeyValueStore.backend())) return null;
         try {
-            ensureStore();
-            List<String> lines = Files.readAllLines(STORE, StandardCharsets.UTF_8);
-            Map<Integer, String> map = new HashMap<>();
-            for (String l : lines) {
-                if (l == null || l.trim().isEmpty()) continue;
-                String[] parts = l.split("\\|", 2);
-                if (parts.length != 2) continue;
-                try {
-                    int id = Integer.parseInt(parts[0].trim());
-                    map.put(id, parts[1].trim().toLowerCase());
-                } catch (NumberFormatException ignore) {}
-            }
-            return map;
+            return MappedAssignmentTable.open(Paths.get("resources", "assignments.dat"), JOURNAL);
+        } catch (IOException e) {
+            // e.g. a file system without mmap or locking: keep working from the journal alone
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // assignments made while writes went to the mapping only are copied to the journal once
+    private static void syncJournal() {
+        try {
+            JOURNAL_LOCK.locked(() -> {
+                Map<String, String> journal = MIRROR.loadAll();
+                Map<String, String> mapped = MAPPED.loadAll();
+                Map<String, String> missing = new HashMap<>();
+                for (Map.Entry<String, String> e : mapped.entrySet()) {
+                    if (!e.getValue().equals(journal.get(e.getKey()))) missing.put(e.getKey(), e.getValue());
+                }
+                for (String key : journal.keySet()) if (!mapped.containsKey(key)) missing.put(key, null);
+                MIRROR.putAll(missing);
+                return null;
+            });
         } catch (IOException e) {
-            return new HashMap<>();
+            e.printStackTrace();
         }
     }
 
-    public static synchronized String getAssignedAdmin(int docId) {
-        Map<Integer, String> map = loadAll();
-        return map.getOrDefault(docId, "");
+    private static void ensureLoaded() {
+        if (loaded) return;
+        synchronized (WRITE_LOCK) {
+            if (loaded) return;
+            try {
+                toIds(BACKEND.loadAll(), INDEX);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            loaded = true;
+        }
     }
 
-    public static synchronized void setAssignedAdmin(int docId, String adminEmail) throws IOException {
-        Map<Integer, String> map = loadAll();
-        if (adminEmail == null || adminEmail.trim().isEmpty()) map.remove(docId);
-        else map.put(docId, adminEmail.trim().toLowerCase());
-        // write out
-        List<String> lines = map.entrySet().stream()
-                .map(e -> e.getKey() + "|" + e.getValue())
-                .collect(Collectors.toList());
-        Files.write(STORE, lines, StandardCharsets.UTF_8);
+    private static void toIds(Map<String, String> entries, Map<Integer, String> into) {
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            String admin = e.getValue().trim().toLowerCase();
+            if (admin.isEmpty()) continue;
+            try {
+                into.put(Integer.parseInt(e.getKey().trim()), admin);
+            } catch (NumberFormatException ignore) {}
+        }
+    }
+
+    /** Read-only view of all assignments (a snapshot when the backend is shared). */
+    public static Map<Integer, String> loadAll() {
+        if (SHARED) {
+            Map<Integer, String> all = new HashMap<>();
+            try {
+                toIds(BACKEND.loadAll(), all);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return Collections.unmodifiableMap(all);
+        }
+        ensureLoaded();
+        return Collections.unmodifiableMap(INDEX);
+    }
+
+    public static String getAssignedAdmin(int docId) {
+        if (SHARED) {
+            String admin = MAPPED.get(docId);
+            return admin == null ? "" : admin;
+        }
+        ensureLoaded();
+        return INDEX.getOrDefault(docId, "");
+    }
+
+    /** Assigned admin for each of the given ids ("" when unassigned), in one pass. */
+    public static Map<Integer, String> getAssignedAdmins(Collection<Integer> docIds) {
+        Map<Integer, String> out = new HashMap<>(docIds.size() * 2);
+        for (Integer id : docIds) out.put(id, getAssignedAdmin(id));
+        return out;
+    }
+
+    public static void setAssignedAdmin(int docId, String adminEmail) throws IOException {
+        setAssignedAdmins(Collections.singletonMap(docId, adminEmail));
+    }
+
+    /** Set several assignments with one write; an empty or null email clears one. */
+    public static void setAssignedAdmins(Map<Integer, String> assignments) throws IOException {
+        if (!SHARED) ensureLoaded();
+        synchronized (WRITE_LOCK) {
+            Map<String, String> batch = new HashMap<>(assignments.size() * 2);
+            for (Map.Entry<Integer, String> e : assignments.entrySet()) {
+                String admin = e.getValue() == null ? "" : e.getValue().trim().toLowerCase();
+                if (!SHARED && admin.equals(INDEX.getOrDefault(e.getKey(), ""))) continue;
+                batch.put(String.valueOf(e.getKey()), admin.isEmpty() ? null : admin);
+            }
+            if (batch.isEmpty()) return;
+            if (SHARED) {
+                // both under the journal lock, so concurrent writers leave the two in the same order
+                JOURNAL_LOCK.locked(() -> {
+                    MAPPED.putAll(batch);
+                    MIRROR.putAll(batch);
+                    return null;
+                });
+                return;
+            }
+            BACKEND.putAll(batch);
+            for (Map.Entry<String, String> e : batch.entrySet()) {
+                if (e.getValue() == null) INDEX.remove(Integer.valueOf(e.getKey()));
+                else INDEX.put(Integer.valueOf(e.getKey()), e.getValue());
+            }
+        }
     }
 
-    public static synchronized void removeAssignment(int docId) throws IOException {
+    public static void removeAssignment(int docId) throws IOException {
         setAssignedAdmin(docId, "");
     }
 }
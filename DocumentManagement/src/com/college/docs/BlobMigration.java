@@ -0,0 +1,145 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One-off background job that moves documents from the old flat uploaded_docs folder into
+ * the content-addressed {@link BlobStore} and points their rows at the blob.
+ *
+ * Rows are walked by id in batches. A legacy file is only adopted when its content still
+ * matches the row's hash_value (same-named uploads used to overwrite each other); it is moved
+ * when no other row uses the same path and copied otherwise. A marker file records that the
+ * migration has finished so later starts skip the scan.
+ */
+public class BlobMigration {
+
+    private static final Path DONE_MARKER = BlobStore.ROOT.resolve(".migrated");
+    private static final int BATCH = 500;
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    public static void startInBackground() {
+        if (Files.exists(DONE_MARKER) || !STARTED.compareAndSet(false, true)) return;
+        Thread t = new Thread(BlobMigration::run, "blob-migration");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    private static final class Legacy {
+        final int id;
+        final String path;
+        final String hash;
+
+        Legacy(int id, String path, String hash) {
+            this.id = id;
+            this.path = path;
+            this.hash = hash;
+        }
+    }
+
+    private static void run() {
+        int lastId = 0;
+        int migrated = 0, skipped = 0;
+        boolean clean = true;
+        try {
+            while (true) {
+                List<Legacy> batch = nextBatch(lastId);
+                if (batch.isEmpty()) break;
+                for (Legacy row : batch) {
+                    lastId = row.id;
+                    if (BlobStore.isBlobPath(row.path)) continue;
+                    try {
+                        if (migrate(row)) migrated++;
+                        else skipped++;
+                    } catch (IOException | SQLException e) {
+                        clean = false;
+                        System.err.println("Blob migration failed for document " + row.id + ": " + e.getMessage());
+                    }
+                }
+            }
+            if (clean) {
+                Files.createDirectories(DONE_MARKER.getParent());
+                Files.write(DONE_MARKER, new byte[0]);
+            }
+            System.out.println("Blob migration finished: " + migrated + " moved, " + skipped + " skipped");
+        } catch (SQLException | IOException e) {
+            System.err.println("Blob migration stopped: " + e.getMessage());
+        }
+    }
+
+    private static List<Legacy> nextBatch(int afterId) throws SQLException {
+        List<Legacy> batch = new ArrayList<>();
+        String sql = "SELECT id, file_path, hash_value FROM documents WHERE id > ? ORDER BY id LIMIT ?";
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                pst.setInt(1, afterId);
+                pst.setInt(2, BATCH);
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) batch.add(new Legacy(rs.getInt("id"), rs.getString("file_path"), rs.getString("hash_value")));
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static boolean migrate(Legacy row) throws IOException, SQLException {
+        if (row.path == null || row.hash == null || row.hash.trim().isEmpty()) return false;
+        Path legacy = Paths.get(row.path);
+        String hash = row.hash.trim().toLowerCase();
+        if (!Files.exists(legacy)) {
+            // already adopted by another row with the same content, or lost
+            if (!BlobStore.exists(hash)) return false;
+            BlobStore.addRef(hash);
+            return repoint(row, BlobStore.pathFor(hash), hash);
+        }
+        if (!hash.equals(UploadPipeline.sha256Hex(legacy))) {
+            System.err.println("Document " + row.id + ": " + legacy + " was overwritten by a different upload, leaving it in place");
+            return false;
+        }
+        Path blob = BlobStore.putFile(legacy, hash, !sharedWithOtherRows(row));
+        return repoint(row, blob, hash);
+    }
+
+    private static boolean sharedWithOtherRows(Legacy row) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM documents WHERE file_path=? AND id<>?";
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                pst.setString(1, row.path);
+                pst.setInt(2, row.id);
+                try (ResultSet rs = pst.executeQuery()) {
+                    return rs.next() && rs.getInt(1) > 0;
+                }
+            }
+        }
+    }
+
+    private static boolean repoint(Legacy row, Path blob, String hash) throws SQLException, IOException {
+        String sql = "UPDATE documents SET file_path=? WHERE id=? AND file_path=?";
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement(sql)) {
+                pst.setString(1, blob.toString());
+                pst.setInt(2, row.id);
+                pst.setString(3, row.path);
+                if (pst.executeUpdate() == 1) {
+                    DeltaTracker.recordChanges(con, List.of(row.id));
+                    return true;
+                }
+            }
+        }
+        BlobStore.release(hash); // row changed underneath us; give the reference back
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Content-addressed storage for uploaded documents.
+ *
+ * A document's bytes live at uploaded_docs/blobs/ab/cd/&lt;sha256&gt;, keyed by the hash_value
+ * stored in the documents table; the original filename is only kept as DB metadata, so two
+ * uploads with the same name can no longer overwrite each other. Each blob has a sidecar
+ * "&lt;sha256&gt;.refs" file counting the rows that point at it, so identical content is stored
+ * once and deleted only when the last reference goes away.
+ *
+ * Every read-modify-write of a count holds an exclusive {@link FileLock} on one byte of
+ * blobs/.refs.lock chosen by the hash's first four hex digits, so the desktop clients, the
+ * HTTP API and bulk imports can share the store without losing counts.
+ */
+public class BlobStore {
+
+    public static final Path ROOT = Paths.get("uploaded_docs", "blobs").toAbsolutePath();
+    private static final Path VIEW_DIR = Paths.get("uploaded_docs", ".view").toAbsolutePath();
+    private static final Path LOCK_FILE = ROOT.resolve(".refs.lock");
+    private static final long VIEW_MAX_AGE_MS = 24L * 3600 * 1000;
+
+    // one monitor per lock-file byte: FileLock ranges may not overlap within a process
+    private static final Map<Integer, Object> LOCKS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean VIEWS_SWEPT = new AtomicBoolean();
+    private static FileChannel lockChannel; // guarded by BlobStore.class
+
+    private interface Locked<T> {
+        T run() throws IOException;
+    }
+
+    public static Path pathFor(String hash) {
+        String h = hash.toLowerCase();
+        if (h.length() < 8) throw new IllegalArgumentException("Not a content hash: " + hash);
+        return ROOT.resolve(h.substring(0, 2)).resolve(h.substring(2, 4)).resolve(h);
+    }
+
+    public static boolean isBlobPath(String filePath) {
+        return filePath != null && Paths.get(filePath).toAbsolutePath().normalize().startsWith(ROOT);
+    }
+
+    public static boolean exists(String hash) {
+        return Files.exists(pathFor(hash));
+    }
+
+    /**
+     * Store a staged upload under its hash and take a reference to it. If the content is
+     * already stored the temp file is dropped and only the reference count goes up.
+     */
+    public static Path put(UploadPipeline.Staged staged) throws IOException {
+        Path blob = pathFor(staged.hash);
+        return locked(staged.hash, () -> {
+            int refs = readRefs(staged.hash);
+            if (Files.exists(blob)) {
+                staged.discard();
+            } else {
+                staged.commit(blob);
+            }
+            writeRefs(staged.hash, refs + 1);
+            return blob;
+        });
+    }
+
+    /** Store an existing file (e.g. a legacy upload) under the given hash, copying or moving it. */
+    public static Path putFile(Path source, String hash, boolean move) throws IOException {
+        Path blob = pathFor(hash);
+        return locked(hash, () -> {
+            int refs = readRefs(hash);
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                Path tmp = blob.resolveSibling(blob.getFileName() + ".tmp");
+                if (move) Files.move(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+                else Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+                moveAtomically(tmp, blob);
+            } else if (move) {
+                Files.deleteIfExists(source);
+            }
+            writeRefs(hash, refs + 1);
+            return blob;
+        });
+    }
+
+    public static int addRef(String hash) throws IOException {
+        return locked(hash, () -> {
+            int refs = readRefs(hash) + 1;
+            writeRefs(hash, refs);
+            return refs;
+        });
+    }
+
+    /** Drop one reference; the blob is deleted when nothing refers to it any more. */
+    public static int release(String hash) throws IOException {
+        return locked(hash, () -> {
+            int refs = Math.max(0, readRefs(hash) - 1);
+            if (refs == 0) {
+                Files.deleteIfExists(pathFor(hash));
+                Files.deleteIfExists(refsFile(hash));
+                deleteViews(viewDir(pathFor(hash)));
+            } else {
+                writeRefs(hash, refs);
+            }
+            return refs;
+        });
+    }
+
+    public static int refCount(String hash) throws IOException {
+        return locked(hash, () -> readRefs(hash));
+    }
+
+    /**
+     * External viewers pick the application from the file extension, which blobs do not have.
+     * This exposes the blob under its original filename (hard link, or a copy if links are
+     * not supported) in uploaded_docs/.view. View copies are removed with the blob, and the
+     * first call in each process removes any older than a day.
+     */
+    public static Path viewCopy(Path blob, String filename) throws IOException {
+        if (VIEWS_SWEPT.compareAndSet(false, true)) sweepViews();
+        String safeName = Paths.get(filename == null || filename.isEmpty() ? "document" : filename).getFileName().toString();
+        Path dir = viewDir(blob);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(safeName);
+        if (Files.exists(target)) return target;
+        try {
+            Files.createLink(target, blob);
+        } catch (FileAlreadyExistsException e) {
+            return target;
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(blob, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    private static Path viewDir(Path blob) {
+        String name = blob.getFileName().toString();
+        return VIEW_DIR.resolve(name.substring(0, Math.min(16, name.length())));
+    }
+
+    // view folders hold plain files only
+    private static void deleteViews(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private static void sweepViews() {
+        if (!Files.isDirectory(VIEW_DIR)) return;
+        long cutoff = System.currentTimeMillis() - VIEW_MAX_AGE_MS;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(VIEW_DIR)) {
+            for (Path dir : dirs) {
+                try {
+                    if (Files.getLastModifiedTime(dir).toMillis() < cutoff) deleteViews(dir);
+                } catch (IOException e) {
+                    // still open in a viewer (Windows); try again next run
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // run work holding the count lock for this hash, against this and other processes
+    private static <T> T locked(String hash, Locked<T> work) throws IOException {
+        int slot = Integer.parseInt(hash.substring(0, 4), 16);
+        synchronized (LOCKS.computeIfAbsent(slot, k -> new Object())) {
+            FileLock lock = lockChannel().lock(slot, 1, false);
+            try {
+                return work.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private static synchronized FileChannel lockChannel() throws IOException {
+        if (lockChannel == null || !lockChannel.isOpen()) {
+            Files.createDirectories(ROOT);
+            lockChannel = FileChannel.open(LOCK_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        return lockChannel;
+    }
+
+    private static Path refsFile(String hash) {
+        Path blob = pathFor(hash);
+        return blob.resolveSibling(blob.getFileName() + ".refs");
+    }
+
+    private static int readRefs(String hash) throws IOException {
+        Path f = refsFile(hash);
+        try (Diagnostics.Span span = Diagnostics.store("read", "blob refs", f)) {
+            if (!Files.exists(f)) return Files.exists(pathFor(hash)) ? 1 : 0; // blob without sidecar: one owner
+            byte[] bytes = Files.readAllBytes(f);
+            span.bytes(bytes.length);
+            try {
+                return Integer.parseInt(new String(bytes, StandardCharsets.UTF_8).trim());
+            } catch (NumberFormatException e) {
+                return 1;
+            }
+        }
+    }
+
+    private static void writeRefs(String hash, int refs) throws IOException {
+        Path f = refsFile(hash);
+        try (Diagnostics.Span span = Diagnostics.store("write", "blob refs", f)) {
+            Files.createDirectories(f.getParent());
+            Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+            byte[] bytes = String.valueOf(refs).getBytes(StandardCharsets.UTF_8);
+            Files.write(tmp, bytes);
+            moveAtomically(tmp, f);
+            span.bytes(bytes.length);
+        }
+    }
+
+    private static void moveAtomically(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
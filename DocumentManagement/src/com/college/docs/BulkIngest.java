@@ -0,0 +1,331 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Headless import of a directory tree of documents for one uploader:
+ * <pre>java com.college.docs.BulkIngest &lt;folder&gt; &lt;owner-email&gt; [hash-threads] [copy-threads]</pre>
+ *
+ * Files are processed in windows. Each window is hashed in parallel on every core, de-duplicated
+ * against the rest of the import and against documents.hash_value, copied into the
+ * {@link BlobStore} by a small fixed number of I/O threads, and inserted through
+ * {@link DocumentService#insertAll} in one transaction. Finished files are appended to a
+ * checkpoint under resources/ingest, keyed by folder and owner, so running the same command
+ * again after a crash skips them (a file whose size or modification time changed is imported
+ * again). Each blob copy is checkpointed too, before its row is inserted; on resume, copies
+ * whose row was committed count as imported and the blob references of the rest are released.
+ * Search indexing and previews are left to the desktop client, which catches up on new rows at
+ * start.
+ */
+public class BulkIngest {
+
+    private static final Path CHECKPOINTS = Paths.get("resources", "ingest");
+    private static final int WINDOW = 1000;
+    private static final int LOOKUP_CHUNK = 500;
+    private static final int DEFAULT_COPY_THREADS = 4;
+
+    /** Totals for one run. */
+    public static class Report {
+        public int files, ingested, duplicates, resumed, failed;
+        public long bytes;
+        public long nanos;
+
+        public double filesPerSecond() {
+            return nanos == 0 ? 0 : (ingested + duplicates + failed) / (nanos / 1e9);
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : (bytes / 1048576.0) / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d files: %d ingested, %d duplicates, %d already done, %d failed; %.1f files/s, %.1f MB/s",
+                    files, ingested, duplicates, resumed, failed, filesPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    private static final class Candidate {
+        final Path path;
+        final long size;
+        final long modified;
+        String hash;
+        Path blob;
+
+        Candidate(Path path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        // the path goes last because it may contain '|'
+        String key() {
+            return size + "|" + modified + "|" + path;
+        }
+
+        String record(String outcome) {
+            return outcome + "|" + key();
+        }
+
+        // "copied" and "released" records also carry the blob's hash
+        String blobRecord(String outcome) {
+            return outcome + "|" + hash + "|" + key();
+        }
+
+        boolean unchanged() throws IOException {
+            return Files.size(path) == size && Files.getLastModifiedTime(path).toMillis() == modified;
+        }
+    }
+
+    public static Report run(Path folder, String ownerEmail, int hashThreads, int copyThreads, PrintStream log)
+            throws IOException, SQLException {
+        if (!Files.isDirectory(folder)) throw new IOException(folder + " is not a folder");
+        if (UserDirectory.roleOf(ownerEmail) == null) throw new IllegalArgumentException(ownerEmail + " is not a registered account");
+        Path root = folder.toAbsolutePath().normalize();
+        String owner = ownerEmail.trim();
+        byte[] id = UploadPipeline.sha256().digest((root + "|" + owner.toLowerCase()).getBytes(StandardCharsets.UTF_8));
+        JournalFile checkpoint = new JournalFile(CHECKPOINTS.resolve(UploadPipeline.toHex(id).substring(0, 16) + ".log"));
+        Set<String> done = new HashSet<>();
+        Map<String, String> unsettled = new LinkedHashMap<>(); // key -> hash, copied but no outcome yet
+        for (String line : checkpoint.readLines()) {
+            int at = line.indexOf('|');
+            if (at <= 0) continue;
+            String outcome = line.substring(0, at);
+            if (outcome.equals("copied") || outcome.equals("released")) {
+                int end = line.indexOf('|', at + 1);
+                if (end < 0) continue;
+                String key = line.substring(end + 1);
+                if (outcome.equals("copied")) unsettled.put(key, line.substring(at + 1, end));
+                else unsettled.remove(key);
+            } else {
+                String key = line.substring(at + 1);
+                done.add(key);
+                unsettled.remove(key);
+            }
+        }
+        settle(checkpoint, owner, unsettled, done, log);
+
+        Report report = new Report();
+        long start = System.nanoTime();
+        List<Candidate> todo = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path p : (Iterable<Path>) walk::iterator) {
+                if (!Files.isRegularFile(p) || p.getFileName().toString().startsWith(".")) continue;
+                Candidate c = new Candidate(p, Files.size(p), Files.getLastModifiedTime(p).toMillis());
+                report.files++;
+                if (done.contains(c.key())) report.resumed++;
+                else todo.add(c);
+            }
+        }
+        log.printf("%d files under %s, %d already imported%n", report.files, root, report.resumed);
+
+        ExecutorService hashers = Executors.newFixedThreadPool(Math.max(1, hashThreads), named("ingest-hash"));
+        ExecutorService copiers = Executors.newFixedThreadPool(Math.max(1, copyThreads), named("ingest-copy"));
+        Map<String, Path> seen = new ConcurrentHashMap<>(); // hash -> first file with that content in this run
+        try {
+            for (int from = 0; from < todo.size(); from += WINDOW) {
+                List<Candidate> window = todo.subList(from, Math.min(todo.size(), from + WINDOW));
+                List<String> records = new ArrayList<>();
+
+                List<Candidate> hashed = runAll(hashers, window, c -> {
+                    c.hash = UploadPipeline.sha256Hex(c.path);
+                    return c;
+                }, report, log);
+                for (Candidate c : hashed) report.bytes += c.size;
+
+                Set<String> existing = existingHashes(hashed);
+                List<Candidate> fresh = new ArrayList<>();
+                for (Candidate c : hashed) {
+                    if (existing.contains(c.hash) || seen.putIfAbsent(c.hash, c.path) != null) {
+                        report.duplicates++;
+                        records.add(c.record("duplicate"));
+                    } else {
+                        fresh.add(c);
+                    }
+                }
+
+                List<Candidate> copied = runAll(copiers, fresh, c -> {
+                    c.blob = BlobStore.putFile(c.path, c.hash, false);
+                    checkpoint.append(c.blobRecord("copied"));
+                    if (!c.unchanged()) {
+                        checkpoint.append(c.blobRecord("released"));
+                        BlobStore.release(c.hash);
+                        seen.remove(c.hash);
+                        throw new IOException("changed while being imported");
+                    }
+                    return c;
+                }, report, log);
+
+                List<DocumentService.NewDocument> docs = new ArrayList<>(copied.size());
+                for (Candidate c : copied) docs.add(new DocumentService.NewDocument(c.path.getFileName().toString(), c.blob, c.hash));
+                try {
+                    DocumentService.insertAll(owner, docs);
+                    report.ingested += copied.size();
+                    for (Candidate c : copied) records.add(c.record("ingested"));
+                } catch (SQLException e) {
+                    // recorded before releasing: a crash in between leaks a reference, never drops one
+                    List<String> released = new ArrayList<>(copied.size());
+                    for (Candidate c : copied) released.add(c.blobRecord("released"));
+                    checkpoint.append(released);
+                    for (Candidate c : copied) BlobStore.release(c.hash);
+                    report.failed += copied.size();
+                    log.println("Could not insert " + copied.size() + " documents: " + e.getMessage());
+                }
+                checkpoint.append(records);
+
+                report.nanos = System.nanoTime() - start;
+                log.printf("%d/%d files, %.1f files/s, %.1f MB/s%n", from + window.size(), todo.size(),
+                        report.filesPerSecond(), report.megabytesPerSecond());
+            }
+        } finally {
+            hashers.shutdownNow();
+            copiers.shutdownNow();
+        }
+        report.nanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private interface Step {
+        Candidate apply(Candidate c) throws IOException;
+    }
+
+    // failures are counted and logged, and left out of the checkpoint so a rerun retries them
+    private static List<Candidate> runAll(ExecutorService pool, List<Candidate> items, Step step, Report report,
+                                          PrintStream log) throws IOException {
+        List<Callable<Candidate>> tasks = new ArrayList<>(items.size());
+        for (Candidate c : items) tasks.add(() -> step.apply(c));
+        List<Candidate> out = new ArrayList<>(items.size());
+        try {
+            List<Future<Candidate>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    out.add(results.get(i).get());
+                } catch (ExecutionException e) {
+                    report.failed++;
+                    log.println(items.get(i).path + ": " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        return out;
+    }
+
+    // only hashes the in-memory index cannot rule out are looked up
+    private static Set<String> existingHashes(List<Candidate> hashed) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        List<Candidate> candidates = new ArrayList<>();
+        for (Candidate c : hashed) if (DuplicateDetector.mightExist(c.hash)) candidates.add(c);
+        if (candidates.isEmpty()) return existing;
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            for (int from = 0; from < candidates.size(); from += LOOKUP_CHUNK) {
+                List<Candidate> chunk = candidates.subList(from, Math.min(candidates.size(), from + LOOKUP_CHUNK));
+                StringBuilder in = new StringBuilder();
+                for (int i = 0; i < chunk.size(); i++) in.append(i == 0 ? "?" : ",?");
+                try (PreparedStatement pst = con.prepareStatement(
+                        "SELECT DISTINCT hash_value FROM documents WHERE hash_value IN (" + in + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) pst.setString(i + 1, chunk.get(i).hash);
+                    try (ResultSet rs = pst.executeQuery()) {
+                        while (rs.next()) existing.add(rs.getString(1).toLowerCase());
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+
+    // blobs an interrupted run copied: a committed row keeps its reference, the rest are released
+    private static void settle(JournalFile checkpoint, String owner, Map<String, String> unsettled, Set<String> done,
+                               PrintStream log) throws IOException, SQLException {
+        if (unsettled.isEmpty()) return;
+        Set<String> committed = ownedHashes(owner, new ArrayList<>(unsettled.values()));
+        List<String> records = new ArrayList<>();
+        List<String> release = new ArrayList<>();
+        for (Map.Entry<String, String> e : unsettled.entrySet()) {
+            if (committed.contains(e.getValue())) {
+                done.add(e.getKey());
+                records.add("ingested|" + e.getKey());
+            } else {
+                release.add(e.getValue());
+                records.add("released|" + e.getValue() + "|" + e.getKey());
+            }
+        }
+        checkpoint.append(records);
+        for (String hash : release) BlobStore.release(hash);
+        log.printf("Settled %d copies from an interrupted run: %d committed, %d released%n",
+                unsettled.size(), unsettled.size() - release.size(), release.size());
+    }
+
+    private static Set<String> ownedHashes(String owner, List<String> hashes) throws SQLException {
+        Set<String> owned = new HashSet<>();
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            for (int from = 0; from < hashes.size(); from += LOOKUP_CHUNK) {
+                List<String> chunk = hashes.subList(from, Math.min(hashes.size(), from + LOOKUP_CHUNK));
+                StringBuilder in = new StringBuilder();
+                for (int i = 0; i < chunk.size(); i++) in.append(i == 0 ? "?" : ",?");
+                try (PreparedStatement pst = con.prepareStatement(
+                        "SELECT DISTINCT hash_value FROM documents WHERE user_email = ? AND hash_value IN (" + in + ")")) {
+                    pst.setString(1, owner);
+                    for (int i = 0; i < chunk.size(); i++) pst.setString(i + 2, chunk.get(i));
+                    try (ResultSet rs = pst.executeQuery()) {
+                        while (rs.next()) owned.add(rs.getString(1).toLowerCase());
+                    }
+                }
+            }
+        }
+        return owned;
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java com.college.docs.BulkIngest <folder> <owner-email> [hash-threads] [copy-threads]");
+            System.exit(2);
+        }
+        int hashThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int copyThreads = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_COPY_THREADS;
+        try {
+            Report report = run(Paths.get(args[0]), args[1], hashThreads, copyThreads, System.out);
+            System.out.println(report);
+            System.exit(report.failed == 0 ? 0 : 1);
+        } catch (IOException | SQLException | IllegalArgumentException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
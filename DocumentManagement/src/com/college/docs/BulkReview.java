@@ -0,0 +1,98 @@
+package com.college.docs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approves or rejects many documents at once.
+ *
+ * Permissions for all ids are resolved in one pass over the in-memory assignments. The
+ * permitted ids are then locked and updated with set-based {@code WHERE id IN (...)}
+ * statements in a single transaction, so either every permitted document changes or none do.
+ */
+public class BulkReview {
+
+    // keeps IN lists well below driver and server placeholder limits
+    private static final int CHUNK = 500;
+
+    public enum Outcome {
+        UPDATED,    // status changed (or was already the requested one)
+        DENIED,     // assigned to another admin
+        NOT_FOUND   // no such document any more
+    }
+
+    /**
+     * @return outcome per requested id, in request order
+     */
+    public static Map<Integer, Outcome> apply(List<Integer> ids, String newStatus, String adminEmail) throws SQLException {
+        Map<Integer, Outcome> outcomes = new LinkedHashMap<>();
+        List<Integer> allowed = new ArrayList<>();
+        Map<Integer, String> assigned = AssignmentStore.getAssignedAdmins(ids);
+        for (Integer id : ids) {
+            String admin = assigned.get(id);
+            if (admin == null || admin.trim().isEmpty() || admin.equalsIgnoreCase(adminEmail)) {
+                allowed.add(id);
+                outcomes.put(id, Outcome.NOT_FOUND); // until the row is seen below
+            } else {
+                outcomes.put(id, Outcome.DENIED);
+            }
+        }
+        if (allowed.isEmpty()) return outcomes;
+
+        List<Object[]> transitions = new ArrayList<>(); // {id, user_email, old status}
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            DeltaTracker.ensureLog(con); // DDL commits implicitly, so before the transaction
+            con.setAutoCommit(false);
+            try {
+                for (int from = 0; from < allowed.size(); from += CHUNK) {
+                    List<Integer> chunk = allowed.subList(from, Math.min(allowed.size(), from + CHUNK));
+                    String in = placeholders(chunk.size());
+                    Set<Integer> found = new HashSet<>();
+                    try (PreparedStatement lock = con.prepareStatement(
+                            "SELECT id, user_email, status FROM documents WHERE id IN (" + in + ") FOR UPDATE")) {
+                        bind(lock, 1, chunk);
+                        try (ResultSet rs = lock.executeQuery()) {
+                            while (rs.next()) {
+                                found.add(rs.getInt(1));
+                                transitions.add(new Object[]{rs.getInt(1), rs.getString(2), rs.getString(3)});
+                            }
+                        }
+                    }
+                    if (found.isEmpty()) continue;
+                    try (PreparedStatement pst = con.prepareStatement("UPDATE documents SET status=? WHERE id IN (" + in + ")")) {
+                        pst.setString(1, newStatus);
+                        bind(pst, 2, chunk);
+                        pst.executeUpdate();
+                    }
+                    DeltaTracker.recordChanges(con, found);
+                    for (Integer id : found) outcomes.put(id, Outcome.UPDATED);
+                }
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+        for (Object[] t : transitions) StatusCounters.recordTransition((Integer) t[0], (String) t[1], (String) t[2], newStatus);
+        return outcomes;
+    }
+
+    private static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) sb.append(i == 0 ? "?" : ",?");
+        return sb.toString();
+    }
+
+    private static void bind(PreparedStatement pst, int index, List<Integer> ids) throws SQLException {
+        for (Integer id : ids) pst.setInt(index++, id);
+    }
+}
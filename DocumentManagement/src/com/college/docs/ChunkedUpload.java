@@ -0,0 +1,242 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Resumable upload of a large file in fixed-size chunks.
+ *
+ * Each upload gets a session folder under uploaded_docs/.uploads holding the partial copy and
+ * a manifest with the SHA-256 of every chunk written so far. The manifest is saved after each
+ * chunk, so when an upload of the same file (same path, size and mtime) is started again, the
+ * partial copy is re-verified chunk by chunk and copying continues after the last good chunk.
+ * A resumed chunk is kept only if the partial copy, the manifest and the source all agree.
+ *
+ * A session is locked while an upload uses it, so a second window or client uploading the
+ * same file is refused instead of writing into the same partial copy. Sessions left behind by
+ * abandoned uploads are deleted after {@value #ABANDONED_DAYS} days.
+ */
+public class ChunkedUpload {
+
+    public static final int CHUNK_SIZE = 8 << 20; // 8 MB
+    static final int ABANDONED_DAYS = 7;
+    private static final Path SESSIONS = Paths.get("uploaded_docs", ".uploads").toAbsolutePath();
+    private static final AtomicBoolean SWEPT = new AtomicBoolean();
+    // sessions this process has a channel open on; closing a second channel on a lock file
+    // would release the first one's lock on some systems, so there is never more than one
+    private static final Set<Path> OPEN = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Copy source into targetDir, resuming an earlier interrupted attempt if there is one.
+     * Cancelling (or a crash) leaves the session in place for the next attempt.
+     */
+    public static UploadPipeline.Staged stage(Path source, Path targetDir, DownloadEngine.Progress progress,
+                                              BooleanSupplier cancelled) throws IOException {
+        long size = Files.size(source);
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        String key = UploadPipeline.toHex(UploadPipeline.sha256()
+                .digest((source.toAbsolutePath() + "|" + size + "|" + mtime).getBytes(StandardCharsets.UTF_8))).substring(0, 32);
+        if (SWEPT.compareAndSet(false, true)) deleteAbandonedSessions();
+        Path session = SESSIONS.resolve(key);
+        if (!OPEN.add(session)) throw new IOException(source.getFileName() + " is already being uploaded in another window");
+        try {
+            Files.createDirectories(session);
+            // closing the channel releases the lock; the lock file stays so a waiting attempt never
+            // locks a deleted file, and the emptied session is swept with the abandoned ones
+            try (FileChannel lockChannel = FileChannel.open(session.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (tryLock(lockChannel) == null) throw new IOException(source.getFileName() + " is already being uploaded in another window");
+                return stage(source, size, mtime, session, targetDir, progress, cancelled);
+            }
+        } finally {
+            OPEN.remove(session);
+        }
+    }
+
+    // caller holds the session lock
+    private static UploadPipeline.Staged stage(Path source, long size, long mtime, Path session, Path targetDir,
+                                               DownloadEngine.Progress progress, BooleanSupplier cancelled) throws IOException {
+        Path part = session.resolve("data.part");
+        Path manifestFile = session.resolve("manifest.properties");
+
+        Properties manifest = loadManifest(manifestFile);
+        if (!source.toAbsolutePath().toString().equals(manifest.getProperty("source"))
+                || !String.valueOf(size).equals(manifest.getProperty("size"))
+                || !String.valueOf(mtime).equals(manifest.getProperty("mtime"))
+                || !String.valueOf(CHUNK_SIZE).equals(manifest.getProperty("chunkSize"))) {
+            manifest.clear(); // different file or chunk size: start over
+        }
+        manifest.setProperty("source", source.toAbsolutePath().toString());
+        manifest.setProperty("size", String.valueOf(size));
+        manifest.setProperty("mtime", String.valueOf(mtime));
+        manifest.setProperty("chunkSize", String.valueOf(CHUNK_SIZE));
+
+        long start = System.nanoTime();
+        int totalChunks = (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        MessageDigest whole = UploadPipeline.sha256();
+        ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK_SIZE);
+
+        try (FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            // Re-verify what an earlier attempt wrote against the manifest and the source; this
+            // also rebuilds the whole-file digest
+            int good = 0;
+            int recorded = Integer.parseInt(manifest.getProperty("chunks", "0"));
+            ByteBuffer sourceBuf = recorded > 0 ? ByteBuffer.allocateDirect(CHUNK_SIZE) : null;
+            while (good < recorded) {
+                String expected = manifest.getProperty("chunk." + good);
+                if (expected == null || !expected.equals(readChunk(out, good, size, buf, whole))
+                        || !expected.equals(readChunk(in, good, size, sourceBuf, null))) break;
+                good++;
+            }
+            if (good < recorded) {
+                // the first bad chunk polluted the digest; rebuild it from the good prefix
+                whole = UploadPipeline.sha256();
+                for (int i = 0; i < good; i++) readChunk(out, i, size, buf, whole);
+            }
+            out.truncate((long) good * CHUNK_SIZE);
+            manifest.setProperty("chunks", String.valueOf(good));
+            if (good > 0) Diagnostics.increment("uploads resumed");
+
+            for (int i = good; i < totalChunks; i++) {
+                if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                    saveManifest(manifest, manifestFile);
+                    throw new DownloadEngine.CancelledException();
+                }
+                long pos = (long) i * CHUNK_SIZE;
+                int len = (int) Math.min(CHUNK_SIZE, size - pos);
+                buf.clear().limit(len);
+                while (buf.hasRemaining()) {
+                    if (in.read(buf, pos + buf.position()) < 0) throw new IOException("Source shrank while uploading");
+                }
+                buf.flip();
+                MessageDigest chunkDigest = UploadPipeline.sha256();
+                chunkDigest.update(buf.duplicate());
+                whole.update(buf.duplicate());
+                while (buf.hasRemaining()) out.write(buf, pos + buf.position());
+                out.force(false);
+                manifest.setProperty("chunk." + i, UploadPipeline.toHex(chunkDigest.digest()));
+                manifest.setProperty("chunks", String.valueOf(i + 1));
+                saveManifest(manifest, manifestFile);
+                if (progress != null) {
+                    long done = pos + len;
+                    progress.update(done, size, DownloadEngine.mbPerSecond(done, System.nanoTime() - start));
+                }
+            }
+        }
+
+        // every chunk is verified: hand the file over like a single-pass upload
+        Files.createDirectories(targetDir);
+        Path tmp = Files.createTempFile(targetDir, ".upload-", ".part");
+        try {
+            Files.move(part, tmp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, tmp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(manifestFile);
+        return new UploadPipeline.Staged(tmp, UploadPipeline.toHex(whole.digest()), size, System.nanoTime() - start);
+    }
+
+    // read chunk i of a file, feed it to the whole-file digest (if any) and return its own hash
+    private static String readChunk(FileChannel ch, int i, long size, ByteBuffer buf, MessageDigest whole) throws IOException {
+        long pos = (long) i * CHUNK_SIZE;
+        int len = (int) Math.min(CHUNK_SIZE, size - pos);
+        buf.clear().limit(len);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) return null; // shorter than recorded
+        }
+        buf.flip();
+        MessageDigest chunkDigest = UploadPipeline.sha256();
+        chunkDigest.update(buf.duplicate());
+        if (whole != null) whole.update(buf);
+        return UploadPipeline.toHex(chunkDigest.digest());
+    }
+
+    // sessions nobody has touched for ABANDONED_DAYS and nobody holds; once per process
+    private static void deleteAbandonedSessions() {
+        long cutoff = System.currentTimeMillis() - ABANDONED_DAYS * 24L * 3600 * 1000;
+        if (!Files.isDirectory(SESSIONS)) return;
+        try (DirectoryStream<Path> sessions = Files.newDirectoryStream(SESSIONS)) {
+            for (Path session : sessions) {
+                if (!Files.isDirectory(session) || lastTouched(session) >= cutoff) continue;
+                if (!OPEN.add(session)) continue; // being uploaded by this process
+                try {
+                    try (FileChannel ch = FileChannel.open(session.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                        FileLock lock = tryLock(ch);
+                        if (lock == null) continue; // in use by another process
+                        for (String name : new String[]{"data.part", "manifest.properties", "manifest.properties.tmp"}) {
+                            Files.deleteIfExists(session.resolve(name));
+                        }
+                        lock.release();
+                    }
+                    Files.deleteIfExists(session.resolve("lock"));
+                    Files.deleteIfExists(session);
+                } finally {
+                    OPEN.remove(session);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // best effort; retried on the next run
+        }
+    }
+
+    // null when another process holds the session
+    private static FileLock tryLock(FileChannel ch) throws IOException {
+        try {
+            return ch.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static long lastTouched(Path session) throws IOException {
+        long newest = Files.getLastModifiedTime(session).toMillis();
+        try (Stream<Path> files = Files.list(session)) {
+            for (Path f : (Iterable<Path>) files::iterator) newest = Math.max(newest, Files.getLastModifiedTime(f).toMillis());
+        }
+        return newest;
+    }
+
+    private static Properties loadManifest(Path file) {
+        Properties p = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                p.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                p.clear();
+            }
+        }
+        return p;
+    }
+
+    private static void saveManifest(Properties manifest, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            manifest.store(out, "chunked upload manifest");
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.college.docs;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small bounded JDBC connection pool used behind {@link DBConnection}.
+ *
+ * Connections handed out are proxies: calling close() returns the physical connection
+ * to the pool instead of closing the socket. Each physical connection keeps an LRU cache
+ * of prepared statements, idle connections are validated before reuse and evicted after
+ * a while, and connections held for too long are reported together with the code that
+ * borrowed them. Statements handed out are proxies too: their getConnection() returns the
+ * borrower's handle, a connection failure (SQLState 08) from them keeps the physical connection
+ * out of the pool, and any the borrower left open are released when the connection comes back.
+ */
+public class ConnectionPool {
+
+    private static final long VALIDATE_AFTER_IDLE_MS = 5_000;
+    private static final long EVICT_INTERVAL_MS = 15_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutMs;
+    private final long leakThresholdMs;
+    private final long checkoutTimeoutMs;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long idleTimeoutMs, long leakThresholdMs, long checkoutTimeoutMs, int statementCacheSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.checkoutTimeoutMs = checkoutTimeoutMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, EVICT_INTERVAL_MS, EVICT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection. The caller must close() it (try-with-resources) to give it back.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is shut down");
+        try (Diagnostics.Span span = Diagnostics.jdbc("checkout", null)) {
+            try {
+                if (!permits.tryAcquire(checkoutTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    span.failed();
+                    throw new SQLException("Timed out waiting for a database connection (pool size " + maxSize + ", in use " + borrowed.size() + ")");
+                }
+            } catch (InterruptedException e) {
+                span.failed();
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            try {
+                PooledConnection pc = takeIdle();
+                if (pc == null) pc = open();
+                borrowed.put(pc, new Borrow());
+                return pc.newHandle();
+            } catch (SQLException | RuntimeException e) {
+                span.failed();
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            for (PooledConnection pc : idle) pc.closeQuietly();
+            idle.clear();
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pc;
+            synchronized (idle) {
+                pc = idle.pollFirst(); // most recently used first keeps the hot set small
+            }
+            if (pc == null) return null;
+            if (System.currentTimeMillis() - pc.lastUsed < VALIDATE_AFTER_IDLE_MS) return pc;
+            try {
+                if (pc.raw.isValid(VALIDATION_TIMEOUT_SECONDS)) return pc;
+            } catch (SQLException ignore) {}
+            pc.closeQuietly();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Diagnostics.increment("jdbc connections opened");
+        Connection raw = DriverManager.getConnection(url, user, password);
+        System.out.println("✅ Database Connected Successfully!");
+        return new PooledConnection(raw);
+    }
+
+    private void giveBack(PooledConnection pc, boolean broken) {
+        Borrow b = borrowed.remove(pc);
+        if (b == null) return; // already returned
+        try {
+            pc.releaseStatements();
+            if (!broken && !closed && !pc.raw.isClosed()) {
+                if (!pc.raw.getAutoCommit()) {
+                    pc.raw.rollback();
+                    pc.raw.setAutoCommit(true);
+                }
+                pc.raw.clearWarnings();
+                pc.lastUsed = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.addFirst(pc);
+                }
+            } else {
+                pc.closeQuietly();
+            }
+        } catch (SQLException e) {
+            pc.closeQuietly();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        // evict connections idle for too long, oldest first, keeping minIdle around
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsed > idleTimeoutMs) {
+                    it.remove();
+                    pc.closeQuietly();
+                }
+            }
+        }
+        // report connections that were never given back
+        for (Borrow b : borrowed.values()) {
+            if (!b.reported && now - b.since > leakThresholdMs) {
+                b.reported = true;
+                System.err.println("⚠ Possible connection leak: connection held for " + (now - b.since)
+                        + " ms by thread " + b.thread + ", borrowed at:");
+                b.site.printStackTrace();
+            }
+        }
+    }
+
+    private static final class Borrow {
+        final long since = System.currentTimeMillis();
+        final String thread = Thread.currentThread().getName();
+        final Throwable site = new Throwable("connection borrowed here");
+        volatile boolean reported;
+    }
+
+    /** A physical connection plus its statement cache. */
+    private final class PooledConnection {
+        final Connection raw;
+        final LinkedHashMap<String, CachedStatement> statements;
+        final List<CachedStatement> uncached = new ArrayList<>(); // this borrow's, closed on release
+        final List<Statement> plain = new ArrayList<>();          // createStatement results of this borrow
+        volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize || eldest.getValue().inUse) return false;
+                    eldest.getValue().closeQuietly();
+                    return true;
+                }
+            };
+        }
+
+        Connection newHandle() {
+            ConnectionHandle handle = new ConnectionHandle(this);
+            handle.proxy = (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handle);
+            return handle.proxy;
+        }
+
+        PreparedStatement prepare(String sql, int autoGeneratedKeys, boolean withKeys, ConnectionHandle owner) throws SQLException {
+            String key = withKeys ? autoGeneratedKeys + "#" + sql : sql;
+            CachedStatement cs = statements.get(key);
+            if (cs != null && !cs.inUse && !cs.raw.isClosed()) {
+                cs.inUse = true;
+                return cs.newHandle(owner);
+            }
+            PreparedStatement ps = withKeys ? raw.prepareStatement(sql, autoGeneratedKeys) : raw.prepareStatement(sql);
+            CachedStatement fresh = new CachedStatement(ps, sql);
+            fresh.inUse = true;
+            // only cache when the slot is free; a second concurrent use of the same SQL stays uncached
+            if (cs == null || cs.raw.isClosed()) {
+                statements.put(key, fresh);
+            } else {
+                fresh.uncached = true;
+                uncached.add(fresh);
+            }
+            return fresh.newHandle(owner);
+        }
+
+        // statements the borrower did not close, so no cache slot stays taken
+        void releaseStatements() {
+            for (CachedStatement cs : statements.values()) cs.release();
+            for (CachedStatement cs : uncached) cs.release();
+            uncached.clear();
+            for (Statement st : plain) {
+                try { st.close(); } catch (SQLException ignore) {}
+            }
+            plain.clear();
+        }
+
+        void closeQuietly() {
+            for (CachedStatement cs : statements.values()) cs.closeQuietly();
+            statements.clear();
+            try { raw.close(); } catch (SQLException ignore) {}
+        }
+    }
+
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pc;
+        private Connection proxy;
+        private boolean returned;
+        private volatile boolean broken;
+
+        ConnectionHandle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(pc, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pc.raw + "]";
+                default:
+                    break;
+            }
+            if (returned) throw new SQLException("Connection has already been returned to the pool");
+            try {
+                if ("prepareStatement".equals(name) && args.length == 1) {
+                    return pc.prepare((String) args[0], 0, false, this);
+                }
+                if ("prepareStatement".equals(name) && args.length == 2 && method.getParameterTypes()[1] == int.class) {
+                    return pc.prepare((String) args[0], (Integer) args[1], true, this);
+                }
+                if ("createStatement".equals(name)) {
+                    Statement st = (Statement) method.invoke(pc.raw, args);
+                    pc.plain.add(st);
+                    return wrap(st);
+                }
+                return method.invoke(pc.raw, args);
+            } catch (InvocationTargetException e) {
+                throw markBroken(e.getCause());
+            } catch (SQLException e) {
+                throw markBroken(e);
+            }
+        }
+
+        // a plain statement whose getConnection() is this handle and whose failures can mark it broken
+        private Statement wrap(Statement st) {
+            return (Statement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Statement.class}, (p, method, args) -> {
+                        switch (method.getName()) {
+                            case "getConnection":
+                                return proxy;
+                            case "equals":
+                                return p == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(p);
+                            case "toString":
+                                return "Pooled[" + st + "]";
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(st, args);
+                        } catch (InvocationTargetException e) {
+                            throw markBroken(e.getCause());
+                        }
+                    });
+        }
+
+        private Throwable markBroken(Throwable t) {
+            // SQLState class 08 = connection exception; never hand such a connection out again
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && state.startsWith("08")) broken = true;
+            }
+            return t;
+        }
+    }
+
+    /** A prepared statement owned by the cache; close() only releases it for the next caller. */
+    private static final class CachedStatement {
+        final PreparedStatement raw;
+        final String sql;
+        volatile boolean inUse;
+        boolean uncached;
+        private int generation;
+        private ResultSet lastResult;
+
+        CachedStatement(PreparedStatement raw, String sql) {
+            this.raw = raw;
+            this.sql = sql;
+        }
+
+        PreparedStatement newHandle(ConnectionHandle owner) {
+            final int gen = ++generation;
+            return (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> invoke(gen, owner, proxy, method, args));
+        }
+
+        private Object invoke(int gen, ConnectionHandle owner, Object proxy, Method method, Object[] args) throws Throwable {
+            boolean current = inUse && gen == generation;
+            switch (method.getName()) {
+                case "close":
+                    if (current) release();
+                    return null;
+                case "isClosed":
+                    return !current || raw.isClosed();
+                case "getConnection":
+                    return owner.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + raw + "]";
+                default:
+                    break;
+            }
+            if (!current) throw new SQLException("Statement has already been closed");
+            if (!method.getName().startsWith("execute")) return invokeRaw(owner, method, args);
+            try (Diagnostics.Span span = Diagnostics.jdbc(method.getName(), sql)) {
+                try {
+                    return invokeRaw(owner, method, args);
+                } catch (Throwable t) {
+                    span.failed();
+                    Diagnostics.increment("jdbc errors");
+                    throw t;
+                }
+            }
+        }
+
+        private Object invokeRaw(ConnectionHandle owner, Method method, Object[] args) throws Throwable {
+            try {
+                Object result = method.invoke(raw, args);
+                if (result instanceof ResultSet && "executeQuery".equals(method.getName())) lastResult = (ResultSet) result;
+                return result;
+            } catch (InvocationTargetException e) {
+                throw owner.markBroken(e.getCause());
+            }
+        }
+
+        void release() {
+            if (!inUse) return;
+            inUse = false;
+            if (uncached) {
+                closeQuietly();
+                return;
+            }
+            try {
+                if (lastResult != null) lastResult.close();
+                raw.clearParameters();
+                raw.clearBatch();
+            } catch (SQLException e) {
+                closeQuietly();
+            } finally {
+                lastResult = null;
+            }
+        }
+
+        void closeQuietly() {
+            try { raw.close(); } catch (SQLException ignore) {}
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.college.docs;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
@@ -10,12 +9,38 @@ public class DBConnection {
     private static final String USER = "root"; // your MySQL username
     private static final String PASSWORD = "Harshini@2006"; // your MySQL password
 
+    // Pool sizing: a desktop client rarely needs more than a handful of concurrent connections
+    private static final int POOL_MAX_SIZE = 8;
+    private static final int POOL_MIN_IDLE = 1;
+    private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long POOL_LEAK_THRESHOLD_MS = 60_000;
+    private static final long POOL_CHECKOUT_TIMEOUT_MS = 10_000;
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private static volatile ConnectionPool pool;
+
+    private static ConnectionPool pool() throws ClassNotFoundException {
+        ConnectionPool p = pool;
+        if (p != null) return p;
+        synchronized (DBConnection.class) {
+            if (pool == null) {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+                pool = new ConnectionPool(URL, USER, PASSWORD, POOL_MAX_SIZE, POOL_MIN_IDLE,
+                        POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS, POOL_CHECKOUT_TIMEOUT_MS, STATEMENT_CACHE_SIZE);
+                Runtime.getRuntime().addShutdownHook(new Thread(DBConnection::shutdown, "db-pool-shutdown"));
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Borrow a pooled connection. Always close it (try-with-resources) so it goes back to the pool.
+     * @return the connection, or null if the driver is missing or the database is unreachable
+     */
     public static Connection getConnection() {
         Connection conn = null;
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("✅ Database Connected Successfully!");
+            conn = pool().getConnection();
         } catch (ClassNotFoundException e) {
             System.out.println("❌ JDBC Driver not found!");
             e.printStackTrace();
@@ -26,8 +51,43 @@ public class DBConnection {
         return conn;
     }
 
+    /**
+     * Load the driver and open the first pooled connection on a background thread, so the
+     * first real query (usually Login) does not pay for driver loading and the TCP/TLS handshake.
+     */
+    public static void warmUpInBackground() {
+        Thread t = new Thread(() -> {
+            long start = System.nanoTime();
+            try (Connection conn = pool().getConnection()) {
+                conn.isValid(2);
+                System.out.printf("Database warm-up done in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            } catch (ClassNotFoundException | SQLException e) {
+                // not fatal: the first real request reports the problem to the user
+                System.out.println("Database warm-up failed: " + e.getMessage());
+            }
+        }, "db-warmup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** One-line pool usage for diagnostics. */
+    public static String poolStats() {
+        ConnectionPool p = pool;
+        if (p == null) return "db pool: not started";
+        return "db pool: " + p.getActiveCount() + " in use, " + p.getIdleCount() + " idle (max " + POOL_MAX_SIZE + ")";
+    }
+
+    public static void shutdown() {
+        ConnectionPool p = pool;
+        if (p != null) p.shutdown();
+    }
+
     // ✅ THIS IS REQUIRED
     public static void main(String[] args) {
-        getConnection();
+        try (Connection conn = getConnection()) {
+            if (conn != null) System.out.println("Connection valid: " + conn.isValid(2));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.college.docs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds documents rows that were added or changed since the last poll, so a dashboard can
+ * patch its table instead of reloading it.
+ *
+ * Every write to documents also appends the row's id to the document_changes log (see
+ * {@link #recordChanges}); a poll reads the log past the last sequence number seen and fetches
+ * only those rows, plus rows with an id above the highest seen. Both queries use a primary key,
+ * so a poll costs the same however large the table is. The last {@value #SEQ_OVERLAP} log
+ * entries are read again each time, because a transaction can commit after a later sequence
+ * number was already seen; callers ignore rows whose values did not change.
+ * Not thread-safe; poll from one background task at a time.
+ */
+public class DeltaTracker {
+
+    private static final String COLUMNS = "id, user_email, filename, file_path, status, uploaded_at, hash_value";
+    private static final String CREATE_LOG = "CREATE TABLE IF NOT EXISTS document_changes ("
+            + "seq BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, doc_id INT NOT NULL, "
+            + "changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, INDEX (changed_at))";
+    private static final int SEQ_OVERLAP = 256;
+    private static final int CHUNK = 500;
+    private static volatile boolean logReady;
+
+    private final String scope;      // extra WHERE predicate, or null for all documents
+    private final Object[] params;
+    private boolean primed;
+    private int maxId;
+    private long maxSeq;
+
+    /**
+     * @param scope  SQL predicate limiting the tracked rows, e.g. "user_email=?", or null
+     * @param params values for the placeholders in scope
+     */
+    public DeltaTracker(String scope, Object... params) {
+        this.scope = scope;
+        this.params = params;
+    }
+
+    /**
+     * Create the change log if needed. CREATE TABLE commits implicitly in MySQL, so writers
+     * call this before opening their own transaction. Old entries are pruned here, once per
+     * process.
+     */
+    public static void ensureLog(Connection con) throws SQLException {
+        if (logReady) return;
+        try (Statement st = con.createStatement()) {
+            st.execute(CREATE_LOG);
+            st.execute("DELETE FROM document_changes WHERE changed_at < NOW() - INTERVAL 1 DAY");
+        }
+        logReady = true;
+    }
+
+    /** Log that these documents changed; call in the same transaction as the change. */
+    public static void recordChanges(Connection con, Collection<Integer> docIds) throws SQLException {
+        if (docIds.isEmpty()) return;
+        ensureLog(con);
+        try (PreparedStatement pst = con.prepareStatement("INSERT INTO document_changes (doc_id) VALUES (?)")) {
+            for (Integer id : docIds) {
+                pst.setInt(1, id);
+                pst.addBatch();
+            }
+            pst.executeBatch();
+        }
+    }
+
+    /** Record the current high-water mark without returning rows. Call before the first full load. */
+    public void prime() throws SQLException {
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            ensureLog(con);
+            try (PreparedStatement pst = con.prepareStatement("SELECT MAX(id) FROM documents" + where(null))) {
+                bind(pst, 1);
+                try (ResultSet rs = pst.executeQuery()) {
+                    if (rs.next()) maxId = rs.getInt(1);
+                }
+            }
+            try (Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT MAX(seq) FROM document_changes")) {
+                if (rs.next()) maxSeq = rs.getLong(1);
+            }
+        }
+        primed = true;
+    }
+
+    /** Rows added or changed since the previous call (or since prime()). */
+    public List<DocumentRow> poll() throws SQLException {
+        if (!primed) prime();
+        List<DocumentRow> changed = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            Set<Integer> ids = new LinkedHashSet<>();
+            try (PreparedStatement pst = con.prepareStatement("SELECT seq, doc_id FROM document_changes WHERE seq > ? ORDER BY seq")) {
+                pst.setLong(1, Math.max(0, maxSeq - SEQ_OVERLAP));
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        maxSeq = Math.max(maxSeq, rs.getLong(1));
+                        ids.add(rs.getInt(2));
+                    }
+                }
+            }
+            if (!ids.isEmpty()) changed.addAll(fetch(con, ids));
+            try (PreparedStatement pst = con.prepareStatement("SELECT " + COLUMNS + " FROM documents" + where("id > ?") + " ORDER BY id")) {
+                pst.setInt(bind(pst, 1), maxId);
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        DocumentRow row = DocumentRow.from(rs);
+                        if (!ids.contains(row.id)) changed.add(row);
+                    }
+                }
+            }
+            for (DocumentRow row : changed) maxId = Math.max(maxId, row.id);
+        }
+        return changed;
+    }
+
+    private List<DocumentRow> fetch(Connection con, Set<Integer> ids) throws SQLException {
+        List<DocumentRow> rows = new ArrayList<>();
+        List<Integer> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += CHUNK) {
+            List<Integer> chunk = all.subList(from, Math.min(all.size(), from + CHUNK));
+            StringBuilder in = new StringBuilder();
+            for (int i = 0; i < chunk.size(); i++) in.append(i == 0 ? "?" : ",?");
+            try (PreparedStatement pst = con.prepareStatement(
+                    "SELECT " + COLUMNS + " FROM documents" + where("id IN (" + in + ")") + " ORDER BY id")) {
+                int index = bind(pst, 1);
+                for (int i = 0; i < chunk.size(); i++) pst.setInt(index + i, chunk.get(i));
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) rows.add(DocumentRow.from(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private String where(String extra) {
+        if (scope == null && extra == null) return "";
+        if (scope == null) return " WHERE " + extra;
+        if (extra == null) return " WHERE " + scope;
+        return " WHERE " + scope + " AND " + extra;
+    }
+
+    private int bind(PreparedStatement pst, int index) throws SQLException {
+        for (Object p : params) pst.setObject(index++, p);
+        return index;
+    }
+}
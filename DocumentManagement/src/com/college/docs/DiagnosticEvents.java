@@ -0,0 +1,64 @@
+package com.college.docs;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Custom JFR events emitted by {@link Diagnostics}. They cost next to nothing unless a
+ * recording is running, e.g. java -XX:StartFlightRecording:filename=dms.jfr ... or jcmd.
+ * Open the .jfr file in JDK Mission Control and look under "Document Management".
+ */
+final class DiagnosticEvents {
+
+    private DiagnosticEvents() {}
+
+    /** Fields shared by every timed operation. */
+    abstract static class Timed extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Target")
+        String target;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("com.college.docs.Jdbc")
+    @Label("JDBC Call")
+    @Category({"Document Management", "Database"})
+    @Description("A statement execution or a pool checkout; the target is the SQL")
+    static final class Jdbc extends Timed {}
+
+    @Name("com.college.docs.StoreIo")
+    @Label("Store File I/O")
+    @Category({"Document Management", "Stores"})
+    @Description("A read or write of one of the text stores under resources/ or a blob reference file")
+    static final class StoreIo extends Timed {}
+
+    @Name("com.college.docs.Transfer")
+    @Label("File Transfer")
+    @Category({"Document Management", "Transfers"})
+    @Description("An upload staged into the blob store or a download to a user-chosen file")
+    static final class Transfer extends Timed {}
+
+    @Name("com.college.docs.EdtStall")
+    @Label("EDT Stall")
+    @Category({"Document Management", "Swing"})
+    @Description("The Swing event thread did not run a posted task for longer than the stall threshold")
+    @StackTrace(false)
+    static final class EdtStall extends Event {
+        @Label("EDT Stack")
+        @Description("Where the event thread was when the stall was detected")
+        String edtStack;
+    }
+}
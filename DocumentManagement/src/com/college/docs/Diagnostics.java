@@ -0,0 +1,275 @@
+package com.college.docs;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process latency histograms and counters for the hot paths: JDBC calls, store file I/O,
+ * uploads/downloads and the Swing event thread. Every timed operation also emits a JFR event
+ * (see {@link DiagnosticEvents}), so a flight recording shows the same data per call.
+ *
+ * Usage: {@code try (Diagnostics.Span s = Diagnostics.store("read", name)) { ... s.bytes(n); }}
+ */
+public class Diagnostics {
+
+    public static final String JDBC = "jdbc";
+    public static final String STORE = "store";
+    public static final String TRANSFER = "transfer";
+    public static final String EDT = "edt";
+
+    private static final long EDT_PING_MS = 100;
+    private static final long EDT_STALL_MS = 500;
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean WATCHDOG = new AtomicBoolean();
+    private static final long STARTED = System.currentTimeMillis();
+
+    /** One timed operation; close() records it. */
+    public static final class Span implements AutoCloseable {
+        private final Histogram histogram;
+        private final DiagnosticEvents.Timed event;
+        private final long start = System.nanoTime();
+        private long bytes;
+        private boolean failed;
+
+        Span(Histogram histogram, DiagnosticEvents.Timed event, String operation, String target) {
+            this.histogram = histogram;
+            this.event = event.isEnabled() ? event : null;
+            if (this.event != null) {
+                this.event.operation = operation;
+                this.event.target = target;
+                this.event.begin();
+            }
+        }
+
+        /** Add to the bytes moved by this operation. */
+        public Span bytes(long n) {
+            bytes += n;
+            return this;
+        }
+
+        /** Mark the operation as failed; it is still timed. */
+        public void failed() {
+            failed = true;
+        }
+
+        @Override
+        public void close() {
+            histogram.record(System.nanoTime() - start, bytes, failed);
+            if (event != null) {
+                event.end();
+                event.bytes = bytes;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    public static Span jdbc(String operation, String sql) {
+        return new Span(histogram(JDBC, operation), new DiagnosticEvents.Jdbc(), operation, sql);
+    }
+
+    /** @param store short store name, e.g. the file name; keeps the number of histograms small */
+    public static Span store(String operation, String store, Path file) {
+        return new Span(histogram(STORE, operation + " " + store), new DiagnosticEvents.StoreIo(), operation,
+                file == null ? store : file.toString());
+    }
+
+    public static Span transfer(String operation, Path file) {
+        return new Span(histogram(TRANSFER, operation), new DiagnosticEvents.Transfer(), operation,
+                file == null ? null : file.toString());
+    }
+
+    public static void increment(String counter) {
+        COUNTERS.computeIfAbsent(counter, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Start the EDT watchdog once per process: a task is posted to the event thread every
+     * 100 ms and its dispatch delay recorded; when one waits longer than 500 ms the event
+     * thread's stack is captured, printed and emitted as an EdtStall JFR event.
+     */
+    public static void startEdtWatchdog() {
+        if (!WATCHDOG.compareAndSet(false, true)) return;
+        Thread t = new Thread(Diagnostics::watchEdt, "edt-watchdog");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void watchEdt() {
+        Histogram delays = histogram(EDT, "dispatch delay");
+        Thread[] edt = new Thread[1];
+        while (true) {
+            try {
+                long posted = System.nanoTime();
+                CountDownLatch ran = new CountDownLatch(1);
+                SwingUtilities.invokeLater(() -> {
+                    edt[0] = Thread.currentThread();
+                    ran.countDown();
+                });
+                if (!ran.await(EDT_STALL_MS, TimeUnit.MILLISECONDS)) {
+                    DiagnosticEvents.EdtStall stall = new DiagnosticEvents.EdtStall();
+                    stall.begin();
+                    String stack = stackOf(edt[0]);
+                    increment("edt stalls");
+                    System.err.println("⚠ Event thread busy for over " + EDT_STALL_MS + " ms:\n" + stack);
+                    ran.await();
+                    stall.end();
+                    stall.edtStack = stack;
+                    stall.commit();
+                }
+                delays.record(System.nanoTime() - posted, 0, false);
+                Thread.sleep(EDT_PING_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static String stackOf(Thread thread) {
+        if (thread == null) return "(event thread not started yet)";
+        StringBuilder sb = new StringBuilder();
+        StackTraceElement[] frames = thread.getStackTrace();
+        for (int i = 0; i < Math.min(frames.length, 30); i++) sb.append("\tat ").append(frames[i]).append('\n');
+        return sb.toString();
+    }
+
+    /** Latency summary of one operation. Times in milliseconds. */
+    public static final class Stat {
+        public final String category;
+        public final String name;
+        public final long count;
+        public final long failures;
+        public final double p50;
+        public final double p99;
+        public final double max;
+        public final long bytes;
+        public final double totalMs;
+
+        Stat(String key, Histogram h) {
+            int space = key.indexOf(' ');
+            this.category = key.substring(0, space);
+            this.name = key.substring(space + 1);
+            this.count = h.count.get();
+            this.failures = h.failures.sum();
+            this.p50 = h.percentile(0.50) / 1e6;
+            this.p99 = h.percentile(0.99) / 1e6;
+            this.max = h.max.get() / 1e6;
+            this.bytes = h.bytes.sum();
+            this.totalMs = h.totalNanos.sum() / 1e6;
+        }
+
+        /** Bytes per second of busy time, for transfers. */
+        public double megabytesPerSecond() {
+            return totalMs <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (totalMs / 1000.0);
+        }
+    }
+
+    /** Current statistics, sorted by category and name. */
+    public static List<Stat> stats() {
+        List<Stat> out = new ArrayList<>();
+        new TreeMap<>(HISTOGRAMS).forEach((k, h) -> out.add(new Stat(k, h)));
+        return out;
+    }
+
+    public static Map<String, Long> counters() {
+        Map<String, Long> out = new TreeMap<>();
+        COUNTERS.forEach((k, v) -> out.put(k, v.sum()));
+        return out;
+    }
+
+    /** Plain-text report of everything above plus the given extra lines. */
+    public static String report(List<String> extra) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Document Management diagnostics, ").append(Instant.now())
+                .append(" (collecting since ").append(Instant.ofEpochMilli(STARTED)).append(")\n\n");
+        sb.append(String.format("%-9s %-36s %9s %7s %10s %10s %10s %12s%n",
+                "category", "operation", "count", "failed", "p50 ms", "p99 ms", "max ms", "MB"));
+        for (Stat s : stats()) {
+            sb.append(String.format("%-9s %-36s %9d %7d %10.2f %10.2f %10.2f %12.1f%n", s.category, s.name, s.count,
+                    s.failures, s.p50, s.p99, s.max, s.bytes / (1024.0 * 1024.0)));
+        }
+        sb.append('\n');
+        counters().forEach((k, v) -> sb.append(k).append(": ").append(v).append('\n'));
+        for (String line : extra) sb.append(line).append('\n');
+        return sb.toString();
+    }
+
+    public static void export(Path file, List<String> extra) throws IOException {
+        Files.write(file, report(extra).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Histogram histogram(String category, String name) {
+        return HISTOGRAMS.computeIfAbsent(category + " " + name, k -> new Histogram());
+    }
+
+    /**
+     * Log-linear histogram over microseconds: exact below 16 µs, then 8 buckets per power of
+     * two (at most 12.5% error). Recording is lock-free.
+     */
+    static final class Histogram {
+        private static final int LINEAR = 16;
+        private static final int SUB_BUCKETS = 8;
+        private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        void record(long nanos, long byteCount, boolean failed) {
+            long nonNegative = Math.max(0, nanos);
+            buckets.incrementAndGet(index(nonNegative / 1000));
+            count.incrementAndGet();
+            max.accumulateAndGet(nonNegative, Math::max);
+            totalNanos.add(nonNegative);
+            if (byteCount > 0) bytes.add(byteCount);
+            if (failed) failures.increment();
+        }
+
+        /** Upper bound of the bucket holding the given quantile, in nanoseconds. */
+        long percentile(double quantile) {
+            long total = count.get();
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return Math.min(upperMicros(i) * 1000, max.get());
+            }
+            return max.get();
+        }
+
+        static int index(long micros) {
+            if (micros < LINEAR) return (int) micros;
+            int msb = 63 - Long.numberOfLeadingZeros(micros); // >= 4
+            int sub = (int) (micros >>> (msb - 3)) & (SUB_BUCKETS - 1);
+            return LINEAR + (msb - 4) * SUB_BUCKETS + sub;
+        }
+
+        static long upperMicros(int index) {
+            if (index < LINEAR) return index + 1;
+            int msb = (index - LINEAR) / SUB_BUCKETS + 4;
+            int sub = (index - LINEAR) % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1)) << (msb - 3);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.college.docs;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live view of {@link Diagnostics}: p50/p99/max latency per operation, counters and cache/pool
+ * statistics, refreshed every second, with an export to a text file.
+ */
+public class DiagnosticsDialog extends JDialog {
+
+    private static final String[] COLUMNS = {"Category", "Operation", "Count", "Failed", "p50 ms", "p99 ms", "Max ms", "MB", "MB/s"};
+
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private final JTextArea counters = new JTextArea(6, 40);
+    private final UiTasks tasks = new UiTasks(this);
+
+    public DiagnosticsDialog(Frame owner) {
+        super(owner, "Diagnostics", false);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        JTable table = new JTable(model);
+        table.setFont(new Font("Arial", Font.PLAIN, 14));
+        table.setRowHeight(22);
+        counters.setEditable(false);
+        counters.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+
+        JButton exportButton = new JButton("Export...");
+        exportButton.addActionListener(e -> export());
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> dispose());
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(exportButton);
+        buttons.add(closeButton);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(new JScrollPane(counters), BorderLayout.CENTER);
+        south.add(buttons, BorderLayout.SOUTH);
+        setLayout(new BorderLayout());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+        setSize(1000, 600);
+        setLocationRelativeTo(owner);
+
+        refresh();
+        Timer timer = new Timer(1000, e -> refresh());
+        timer.start();
+        tasks.onClose(timer::stop);
+    }
+
+    private void refresh() {
+        List<Diagnostics.Stat> stats = Diagnostics.stats();
+        model.setRowCount(stats.size());
+        for (int r = 0; r < stats.size(); r++) {
+            Diagnostics.Stat s = stats.get(r);
+            Object[] row = {s.category, s.name, s.count, s.failures, format(s.p50), format(s.p99), format(s.max),
+                    String.format("%.1f", s.bytes / (1024.0 * 1024.0)),
+                    Diagnostics.TRANSFER.equals(s.category) ? String.format("%.1f", s.megabytesPerSecond()) : ""};
+            for (int c = 0; c < row.length; c++) {
+                if (!row[c].equals(model.getValueAt(r, c))) model.setValueAt(row[c], r, c);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> e : Diagnostics.counters().entrySet()) {
+            sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+        }
+        for (String line : extraLines()) sb.append(line).append('\n');
+        if (!sb.toString().equals(counters.getText())) counters.setText(sb.toString());
+    }
+
+    private static String format(double ms) {
+        return String.format("%.2f", ms);
+    }
+
+    // cheap, in-memory figures only: this runs on the EDT every second
+    static List<String> extraLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(DBConnection.poolStats());
+        lines.add(UserDirectory.stats());
+        lines.add(DuplicateDetector.stats());
+        lines.add(SearchIndex.stats());
+        Runtime rt = Runtime.getRuntime();
+        lines.add(String.format("heap: %d MB used of %d MB (max %d MB)", (rt.totalMemory() - rt.freeMemory()) >> 20,
+                rt.totalMemory() >> 20, rt.maxMemory() >> 20));
+        return lines;
+    }
+
+    private void export() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("dms-diagnostics-" + System.currentTimeMillis() + ".txt"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File target = chooser.getSelectedFile();
+        List<String> extra = extraLines();
+        tasks.run(() -> {
+            Diagnostics.export(target.toPath(), extra);
+            return null;
+        }, ignored -> JOptionPane.showMessageDialog(this, "Diagnostics saved to\n" + target.getAbsolutePath()), ex -> {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Could not save diagnostics:\n" + ex.getMessage());
+        });
+    }
+}
@@ -0,0 +1,433 @@
+package com.college.docs;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP API over {@link DocumentService}, on the JDK HttpServer with one virtual thread
+ * per request, bound to 127.0.0.1 only.
+ *
+ * Clients first POST "email=&amp;password=" (form-encoded) to /api/login, which checks the
+ * password against the users table the same way the login window does and returns a session
+ * token. Every other request sends "Authorization: Bearer &lt;token&gt;" and acts as the account
+ * the token was issued to. Sessions end on /api/logout, after {@value #SESSION_IDLE_MINUTES}
+ * idle minutes, or when the server stops. Endpoints:
+ * <pre>
+ * POST /api/login                            body: email=&amp;password=; returns {"token":...}
+ * POST /api/logout                           end the caller's session
+ * GET  /api/documents?status=&amp;after=&amp;limit=   own documents, or all for admins (JSON)
+ * GET  /api/documents/{id}                   one document
+ * GET  /api/documents/{id}/content           file bytes (admins, or the uploader once APPROVED)
+ * POST /api/documents?filename=              upload the request body; 201, or 409 if a duplicate
+ * POST /api/documents/{id}/assign?admin=     assign for review
+ * POST /api/review?status=APPROVED|REJECTED  body: ids separated by commas or newlines (413 over 1 MB)
+ * GET  /api/counts                           pending/approved/rejected for the caller
+ * </pre>
+ * Run headless with {@code java com.college.docs.DocumentHttpServer [port]}.
+ */
+public class DocumentHttpServer {
+
+    public static final int DEFAULT_PORT = 8765;
+    static final int SESSION_IDLE_MINUTES = 480;
+    private static final long SESSION_IDLE_MS = SESSION_IDLE_MINUTES * 60_000L;
+    private static final int MAX_PAGE = 1000;
+    private static final int MAX_REVIEW_BODY = 1 << 20;
+    private static final int MAX_LOGIN_BODY = 4096;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // token -> session
+
+    private static final class Session {
+        final String email;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Session(String email) {
+            this.email = email;
+        }
+
+        boolean expired(long now) {
+            return now - lastUsed > SESSION_IDLE_MS;
+        }
+    }
+
+    /** The request body was larger than the endpoint accepts. */
+    private static class TooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        TooLargeException(int max) {
+            super("Request body is larger than " + max + " bytes");
+        }
+    }
+
+    private DocumentHttpServer(int port) throws IOException {
+        // a large accept backlog so bursts of clients queue in the kernel instead of being refused
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        server.createContext("/api/login", this::login);
+        server.createContext("/api/logout", this::logout);
+        server.createContext("/api/documents", this::documents);
+        server.createContext("/api/review", this::review);
+        server.createContext("/api/counts", this::counts);
+        server.setExecutor(executor);
+    }
+
+    /** Start on the given port (0 picks a free one). */
+    public static DocumentHttpServer start(int port) throws IOException {
+        DocumentHttpServer s = new DocumentHttpServer(port);
+        s.server.start();
+        System.out.println("Document API listening on http://127.0.0.1:" + s.port() + "/api");
+        return s;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        sessions.clear();
+    }
+
+    // ---- handlers -----------------------------------------------------------------------
+
+    private interface Handler {
+        void handle(HttpExchange ex, String caller) throws Exception;
+    }
+
+    private void login(HttpExchange ex) {
+        serve(ex, false, (e, ignored) -> {
+            if (!"POST".equals(e.getRequestMethod())) {
+                respond(e, 405, error("Use POST"));
+                return;
+            }
+            Map<String, String> form = decode(new String(readBody(e, MAX_LOGIN_BODY), StandardCharsets.UTF_8));
+            String email = form.getOrDefault("email", "").trim();
+            String password = form.getOrDefault("password", "").trim();
+            if (email.isEmpty() || password.isEmpty()) throw new IllegalArgumentException("email and password are required");
+            String role = DocumentService.authenticate(email, password);
+            if (role == null) {
+                respond(e, 401, error("Invalid email or password"));
+                return;
+            }
+            long now = System.currentTimeMillis();
+            sessions.values().removeIf(s -> s.expired(now));
+            byte[] bytes = new byte[32];
+            random.nextBytes(bytes);
+            String token = HexFormat.of().formatHex(bytes);
+            sessions.put(token, new Session(email));
+            respond(e, 200, "{\"token\":" + quote(token) + ",\"email\":" + quote(email) + ",\"role\":" + quote(role)
+                    + ",\"idleMinutes\":" + SESSION_IDLE_MINUTES + "}");
+        });
+    }
+
+    private void logout(HttpExchange ex) {
+        serve(ex, true, (e, caller) -> {
+            if (!"POST".equals(e.getRequestMethod())) {
+                respond(e, 405, error("Use POST"));
+                return;
+            }
+            sessions.remove(bearer(e));
+            respond(e, 200, "{\"loggedOut\":" + quote(caller) + "}");
+        });
+    }
+
+    private void documents(HttpExchange ex) {
+        serve(ex, true, (e, caller) -> {
+            String[] parts = e.getRequestURI().getPath().replaceAll("/+$", "").split("/"); // "", api, documents, id, action
+            String method = e.getRequestMethod();
+            if (parts.length < 3 || !"documents".equals(parts[2])) {
+                respond(e, 404, error("No such endpoint"));
+                return;
+            }
+            if (parts.length == 3) {
+                if ("GET".equals(method)) listDocuments(e, caller);
+                else if ("POST".equals(method)) upload(e, caller);
+                else respond(e, 405, error("Use GET or POST"));
+                return;
+            }
+            int id = Integer.parseInt(parts[3]);
+            String action = parts.length > 4 ? parts[4] : "";
+            if (parts.length > 5) {
+                respond(e, 404, error("No such endpoint"));
+            } else if (action.isEmpty() && "GET".equals(method)) {
+                DocumentRow doc = DocumentService.find(id);
+                if (doc == null || (!DocumentService.isAdmin(caller) && !doc.userEmail.equalsIgnoreCase(caller))) {
+                    throw new DocumentService.NotFoundException(id);
+                }
+                respond(e, 200, json(doc));
+            } else if ("content".equals(action) && "GET".equals(method)) {
+                download(e, DocumentService.downloadable(id, caller));
+            } else if ("assign".equals(action) && "POST".equals(method)) {
+                String admin = query(e).get("admin");
+                if (admin == null || admin.isEmpty()) throw new IllegalArgumentException("admin is required");
+                DocumentService.assign(id, caller, admin);
+                respond(e, 200, "{\"id\":" + id + ",\"assignedTo\":" + quote(admin) + "}");
+            } else {
+                respond(e, 404, error("No such endpoint"));
+            }
+        });
+    }
+
+    private void listDocuments(HttpExchange e, String caller) throws Exception {
+        Map<String, String> q = query(e);
+        int after = Integer.parseInt(q.getOrDefault("after", "0"));
+        int limit = Math.min(MAX_PAGE, Math.max(1, Integer.parseInt(q.getOrDefault("limit", "100"))));
+        String status = q.get("status");
+        String owner = DocumentService.isAdmin(caller) ? q.get("user") : caller;
+        List<DocumentRow> rows = DocumentService.list(owner, status, after, limit);
+        StringBuilder sb = new StringBuilder("{\"documents\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(json(rows.get(i)));
+        }
+        sb.append("],\"next\":").append(rows.size() == limit ? String.valueOf(rows.get(rows.size() - 1).id) : "null").append('}');
+        respond(e, 200, sb.toString());
+    }
+
+    private void upload(HttpExchange e, String caller) throws Exception {
+        String filename = query(e).get("filename");
+        if (filename == null || filename.isEmpty() || filename.contains("/") || filename.contains("\\")) {
+            throw new IllegalArgumentException("filename is required and must not contain a path");
+        }
+        DocumentService.Upload upload;
+        try (InputStream body = e.getRequestBody()) {
+            upload = DocumentService.upload(caller, Channels.newChannel(body), filename);
+        }
+        if (upload.duplicate) {
+            respond(e, 409, "{\"duplicate\":true,\"hash\":" + quote(upload.hash) + "}");
+        } else {
+            respond(e, 201, "{\"id\":" + upload.docId + ",\"hash\":" + quote(upload.hash) + ",\"bytes\":" + upload.bytes
+                    + ",\"megabytesPerSecond\":" + String.format(Locale.ROOT, "%.1f", upload.megabytesPerSecond) + "}");
+        }
+    }
+
+    private void download(HttpExchange e, DocumentRow doc) throws IOException {
+        Path file = Paths.get(doc.filePath);
+        if (!Files.isRegularFile(file)) {
+            respond(e, 410, error("File is missing on the server"));
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             Diagnostics.Span span = Diagnostics.transfer("download (http)", file)) {
+            long size = in.size();
+            e.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            e.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"" + doc.filename.replace("\"", "") + "\"");
+            if (doc.hashValue != null) e.getResponseHeaders().set("ETag", "\"" + doc.hashValue + "\"");
+            e.sendResponseHeaders(200, size == 0 ? -1 : size);
+            try (OutputStream out = e.getResponseBody()) {
+                WritableByteChannel channel = Channels.newChannel(out);
+                long pos = 0;
+                while (pos < size) {
+                    long n = in.transferTo(pos, size - pos, channel);
+                    if (n <= 0) break;
+                    pos += n;
+                }
+                span.bytes(pos);
+            }
+        }
+    }
+
+    private void review(HttpExchange ex) {
+        serve(ex, true, (e, caller) -> {
+            if (!"POST".equals(e.getRequestMethod())) {
+                respond(e, 405, error("Use POST"));
+                return;
+            }
+            String status = query(e).get("status");
+            byte[] body = readBody(e, MAX_REVIEW_BODY);
+            List<Integer> ids = new ArrayList<>();
+            for (String s : new String(body, StandardCharsets.UTF_8).split("[,\\s]+")) {
+                if (!s.isEmpty()) ids.add(Integer.parseInt(s));
+            }
+            if (ids.isEmpty()) throw new IllegalArgumentException("No document ids in the request body");
+            Map<Integer, BulkReview.Outcome> outcomes = DocumentService.review(ids, status == null ? "" : status, caller);
+            StringBuilder sb = new StringBuilder("{");
+            for (Map.Entry<Integer, BulkReview.Outcome> o : outcomes.entrySet()) {
+                if (sb.length() > 1) sb.append(',');
+                sb.append('"').append(o.getKey()).append("\":\"").append(o.getValue()).append('"');
+            }
+            respond(e, 200, sb.append('}').toString());
+        });
+    }
+
+    private void counts(HttpExchange ex) {
+        serve(ex, true, (e, caller) -> {
+            StringBuilder sb = new StringBuilder("{\"mine\":").append(json(DocumentService.counts(caller)));
+            if (DocumentService.isAdmin(caller)) sb.append(",\"total\":").append(json(DocumentService.totals()));
+            respond(e, 200, sb.append('}').toString());
+        });
+    }
+
+    // authentication, error mapping and cleanup shared by every endpoint
+    private void serve(HttpExchange e, boolean authenticated, Handler handler) {
+        try {
+            if (!authenticated) {
+                handler.handle(e, null);
+                return;
+            }
+            Session session = sessions.get(bearer(e));
+            long now = System.currentTimeMillis();
+            if (session == null || session.expired(now)) {
+                respond(e, 401, error("Log in at /api/login and send the token as \"Authorization: Bearer <token>\""));
+            } else if (UserDirectory.roleOf(session.email) == null) {
+                sessions.remove(bearer(e));
+                respond(e, 401, error("The account no longer exists"));
+            } else {
+                session.lastUsed = now;
+                handler.handle(e, session.email);
+            }
+        } catch (TooLargeException ex) {
+            respondQuietly(e, 413, error(ex.getMessage()));
+        } catch (DocumentService.NotFoundException ex) {
+            respondQuietly(e, 404, error(ex.getMessage()));
+        } catch (DocumentService.NotAllowedException ex) {
+            respondQuietly(e, 403, error(ex.getMessage()));
+        } catch (IllegalArgumentException ex) { // includes NumberFormatException
+            respondQuietly(e, 400, error(ex.getMessage()));
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            respondQuietly(e, 503, error("Database unavailable"));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            respondQuietly(e, 500, error("Internal error"));
+        } finally {
+            e.close();
+        }
+    }
+
+    private static void respond(HttpExchange e, int code, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        e.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        e.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = e.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // after a failure the headers may already be sent; then there is nothing left to tell the client
+    private static void respondQuietly(HttpExchange e, int code, String json) {
+        try {
+            respond(e, code, json);
+        } catch (IOException | RuntimeException ignore) {
+        }
+    }
+
+    private static String bearer(HttpExchange e) {
+        String auth = e.getRequestHeaders().getFirst("Authorization");
+        return auth != null && auth.startsWith("Bearer ") ? auth.substring(7).trim() : "";
+    }
+
+    // the whole body, or TooLargeException without buffering more than max + 1 bytes
+    private static byte[] readBody(HttpExchange e, int max) throws IOException {
+        String length = e.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && length.trim().matches("\\d+") && Long.parseLong(length.trim()) > max) {
+            throw new TooLargeException(max);
+        }
+        byte[] body;
+        try (InputStream in = e.getRequestBody()) {
+            body = in.readNBytes(max + 1);
+        }
+        if (body.length > max) throw new TooLargeException(max);
+        return body;
+    }
+
+    private static Map<String, String> query(HttpExchange e) {
+        return decode(e.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, String> decode(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    // ---- JSON -------------------------------------------------------------------------------
+
+    private static String json(DocumentRow d) {
+        return "{\"id\":" + d.id + ",\"userEmail\":" + quote(d.userEmail) + ",\"filename\":" + quote(d.filename)
+                + ",\"status\":" + quote(d.status) + ",\"uploadedAt\":" + quote(d.uploadedAt == null ? null : d.uploadedAt.toInstant().toString())
+                + ",\"hash\":" + quote(d.hashValue) + ",\"assignedTo\":" + quote(AssignmentStore.getAssignedAdmin(d.id)) + "}";
+    }
+
+    private static String json(StatusCounters.Counts c) {
+        return "{\"pending\":" + c.pending + ",\"approved\":" + c.approved + ",\"rejected\":" + c.rejected + "}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /** Start inside the desktop client when -Ddms.api.port=N is given. */
+    public static void startIfConfigured() {
+        String port = System.getProperty("dms.api.port");
+        if (port == null || port.trim().isEmpty()) return;
+        try {
+            DocumentHttpServer s = start(Integer.parseInt(port.trim()));
+            Runtime.getRuntime().addShutdownHook(new Thread(s::stop, "api-shutdown"));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not start the document API: " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        DBConnection.warmUpInBackground();
+        BlobMigration.startInBackground();
+        DuplicateDetector.loadInBackground();
+        DocumentHttpServer s = start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(s::stop, "api-shutdown"));
+    }
+}
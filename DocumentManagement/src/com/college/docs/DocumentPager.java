@@ -0,0 +1,132 @@
+package com.college.docs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keyset pagination over the documents table, ordered by (uploaded_at, id) within each status.
+ *
+ * Statuses are walked one after the other, PENDING first, so reviewers see the work queue
+ * before anything else. Each page continues after the last (uploaded_at, id) seen instead of
+ * using OFFSET, so every page costs the same no matter how deep the user has scrolled. An index
+ * on documents(status, uploaded_at, id), created on first use if missing, lets MySQL answer each
+ * page with a range scan. When paging all statuses, rows with any other status (or none) come
+ * last, so nothing the table used to show is hidden. uploaded_at is expected to be filled by
+ * the column default, i.e. never NULL.
+ */
+public class DocumentPager {
+
+    public static final String[] STATUS_ORDER = {"PENDING", "APPROVED", "REJECTED"};
+
+    private static final String COLUMNS = "id, user_email, filename, file_path, status, uploaded_at, hash_value";
+    private static final String ONE_STATUS = "status=?";
+    private static final String OTHER_STATUSES = "(status IS NULL OR status NOT IN ('PENDING', 'APPROVED', 'REJECTED'))";
+    private static final String AFTER = " AND (uploaded_at > ? OR (uploaded_at = ? AND id > ?))";
+    private static final String INDEX_NAME = "idx_documents_status_uploaded";
+    private static volatile boolean indexReady;
+
+    private final String statusFilter;
+    private final String[] statuses;
+    private final int pageSize;
+    private int phase;
+    private Timestamp lastUploadedAt;
+    private int lastId;
+
+    /**
+     * @param statusFilter one status to show, or null for all of them (pending first)
+     * @param pageSize rows fetched per call to {@link #nextPage()}
+     */
+    public DocumentPager(String statusFilter, int pageSize) {
+        this.statusFilter = statusFilter == null ? null : statusFilter.toUpperCase();
+        // null in the last phase of "all" stands for every other status
+        this.statuses = statusFilter == null ? Arrays.copyOf(STATUS_ORDER, STATUS_ORDER.length + 1)
+                : new String[]{statusFilter.toUpperCase()};
+        this.pageSize = pageSize;
+    }
+
+    /** The single status being paged, or null when paging all of them. */
+    public String getStatusFilter() {
+        return statusFilter;
+    }
+
+    public boolean hasMore() {
+        return phase < statuses.length;
+    }
+
+    public List<DocumentRow> nextPage() throws SQLException {
+        List<DocumentRow> page = new ArrayList<>(pageSize);
+        if (!hasMore()) return page;
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            ensureIndex(con);
+            while (page.size() < pageSize && hasMore()) {
+                int want = pageSize - page.size();
+                int got = fetch(con, statuses[phase], want, page);
+                if (got < want) {
+                    // this status is exhausted; continue with the next one from its start
+                    phase++;
+                    lastUploadedAt = null;
+                    lastId = 0;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Create the paging index if it is missing, once per process. MySQL has no CREATE INDEX IF
+     * NOT EXISTS, so look first; a client that creates it at the same moment is fine too.
+     */
+    private static void ensureIndex(Connection con) {
+        if (indexReady) return;
+        try (PreparedStatement pst = con.prepareStatement("SHOW INDEX FROM documents WHERE Key_name = ?")) {
+            pst.setString(1, INDEX_NAME);
+            boolean exists;
+            try (ResultSet rs = pst.executeQuery()) {
+                exists = rs.next();
+            }
+            if (!exists) {
+                try (Statement st = con.createStatement()) {
+                    st.execute("CREATE INDEX " + INDEX_NAME + " ON documents (status, uploaded_at, id)");
+                }
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() != 1061) e.printStackTrace(); // 1061: created by another client meanwhile
+        }
+        indexReady = true; // paging works without it, so do not retry on every page
+    }
+
+    private int fetch(Connection con, String status, int limit, List<DocumentRow> out) throws SQLException {
+        boolean first = lastUploadedAt == null;
+        String sql = "SELECT " + COLUMNS + " FROM documents WHERE " + (status == null ? OTHER_STATUSES : ONE_STATUS)
+                + (first ? "" : AFTER) + " ORDER BY uploaded_at, id LIMIT ?";
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            int i = 1;
+            if (status != null) pst.setString(i++, status);
+            if (!first) {
+                pst.setTimestamp(i++, lastUploadedAt);
+                pst.setTimestamp(i++, lastUploadedAt);
+                pst.setInt(i++, lastId);
+            }
+            pst.setInt(i, limit);
+            int count = 0;
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    DocumentRow row = DocumentRow.from(rs);
+                    out.add(row);
+                    lastUploadedAt = row.uploadedAt;
+                    lastId = row.id;
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
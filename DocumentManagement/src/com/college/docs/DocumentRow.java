@@ -0,0 +1,35 @@
+package com.college.docs;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * One row of the documents table, limited to the columns the dashboards display.
+ */
+public class DocumentRow {
+    public final int id;
+    public final String userEmail;
+    public final String filename;
+    public final String filePath;
+    public final String status;
+    public final Timestamp uploadedAt;
+    public final String hashValue;
+
+    public DocumentRow(int id, String userEmail, String filename, String filePath, String status,
+                       Timestamp uploadedAt, String hashValue) {
+        this.id = id;
+        this.userEmail = userEmail;
+        this.filename = filename;
+        this.filePath = filePath;
+        this.status = status;
+        this.uploadedAt = uploadedAt;
+        this.hashValue = hashValue;
+    }
+
+    static DocumentRow from(ResultSet rs) throws SQLException {
+        return new DocumentRow(rs.getInt("id"), rs.getString("user_email"), rs.getString("filename"),
+                rs.getString("file_path"), rs.getString("status"), rs.getTimestamp("uploaded_at"),
+                rs.getString("hash_value"));
+    }
+}
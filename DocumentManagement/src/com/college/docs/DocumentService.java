@@ -0,0 +1,301 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Headless document operations shared by the Swing dashboards and {@link DocumentHttpServer}:
+ * upload with de-duplication, assignment, listing, bulk review, counts and download checks.
+ *
+ * Methods are thread-safe and block on I/O, so call them off the EDT. Callers pass the email
+ * of the account acting; permission checks use the role from {@link UserDirectory}.
+ */
+public class DocumentService {
+
+    private static final String COLUMNS = "id, user_email, filename, file_path, status, uploaded_at, hash_value";
+    private static final String INSERT =
+            "INSERT INTO documents (user_email, filename, file_path, hash_value, status) VALUES (?, ?, ?, ?, 'PENDING')";
+    private static final int INSERT_BATCH = 200;
+
+    /** The account may not do this. */
+    public static class NotAllowedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public NotAllowedException(String message) {
+            super(message);
+        }
+    }
+
+    /** No such document. */
+    public static class NotFoundException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public NotFoundException(int docId) {
+            super("Document " + docId + " not found");
+        }
+    }
+
+    /** Result of an upload. docId is -1 for duplicates. */
+    public static class Upload {
+        public final boolean duplicate;
+        public final int docId;
+        public final String hash;
+        public final long bytes;
+        public final double megabytesPerSecond;
+
+        Upload(boolean duplicate, int docId, UploadPipeline.Staged staged) {
+            this.duplicate = duplicate;
+            this.docId = docId;
+            this.hash = staged.hash;
+            this.bytes = staged.bytes;
+            this.megabytesPerSecond = staged.megabytesPerSecond();
+        }
+    }
+
+    /** A file already in the blob store, holding one reference, to be inserted by {@link #insertAll}. */
+    public static class NewDocument {
+        public final String filename;
+        public final Path blob;
+        public final String hash;
+
+        public NewDocument(String filename, Path blob, String hash) {
+            this.filename = filename;
+            this.blob = blob;
+            this.hash = hash;
+        }
+    }
+
+    /** Upload a local file; large files go through resumable chunks with progress and cancel. */
+    public static Upload upload(String userEmail, Path source, String filename, DownloadEngine.Progress progress,
+                                BooleanSupplier cancelled) throws IOException, SQLException {
+        UploadPipeline.Staged staged = progress == null
+                ? UploadPipeline.stage(source, BlobStore.ROOT)
+                : UploadPipeline.stage(source, BlobStore.ROOT, progress, cancelled);
+        return store(userEmail, filename, staged);
+    }
+
+    /** Upload from a stream, e.g. an HTTP request body. */
+    public static Upload upload(String userEmail, ReadableByteChannel body, String filename) throws IOException, SQLException {
+        return store(userEmail, filename, UploadPipeline.stage(body, BlobStore.ROOT));
+    }
+
+    // de-duplicate by hash, then move the staged file into the blob store and insert the row
+    private static Upload store(String userEmail, String filename, UploadPipeline.Staged staged) throws IOException, SQLException {
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            if (DuplicateDetector.exists(con, staged.hash)) return new Upload(true, -1, staged);
+
+            // the original name is kept in the DB only
+            Path destination = BlobStore.put(staged);
+            boolean inserted = false;
+            int docId = -1;
+            DeltaTracker.ensureLog(con); // DDL commits implicitly, so before the transaction
+            con.setAutoCommit(false);
+            try (PreparedStatement pst = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                pst.setString(1, userEmail);
+                pst.setString(2, filename);
+                pst.setString(3, destination.toString());
+                pst.setString(4, staged.hash);
+                pst.executeUpdate();
+                try (ResultSet gk = pst.getGeneratedKeys()) {
+                    if (gk != null && gk.next()) docId = gk.getInt(1);
+                }
+                if (docId > 0) DeltaTracker.recordChanges(con, List.of(docId));
+                con.commit();
+                inserted = true;
+            } finally {
+                if (!inserted) {
+                    try {
+                        con.rollback();
+                    } finally {
+                        BlobStore.release(staged.hash);
+                    }
+                }
+            }
+            DuplicateDetector.added(staged.hash);
+            StatusCounters.recordUpload(userEmail);
+            // text extraction and previews run on their own threads, not as part of the upload
+            SearchIndex.submit(docId, destination, filename);
+            PreviewService.submit(staged.hash, destination, filename);
+            return new Upload(false, docId, staged);
+        } finally {
+            staged.discard(); // no-op once committed
+        }
+    }
+
+    /**
+     * Insert documents whose blobs are already stored, in JDBC batches within one transaction
+     * that also logs them for the dashboards' delta refresh. Returns the new ids. On failure
+     * nothing is inserted and the caller still owns the blob references.
+     */
+    public static List<Integer> insertAll(String userEmail, List<NewDocument> docs) throws SQLException {
+        if (docs.isEmpty()) return List.of();
+        List<Integer> ids = new ArrayList<>(docs.size());
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            DeltaTracker.ensureLog(con); // DDL commits implicitly, so before the transaction
+            con.setAutoCommit(false);
+            try (PreparedStatement pst = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < docs.size(); i++) {
+                    NewDocument d = docs.get(i);
+                    pst.setString(1, userEmail);
+                    pst.setString(2, d.filename);
+                    pst.setString(3, d.blob.toString());
+                    pst.setString(4, d.hash);
+                    pst.addBatch();
+                    if ((i + 1) % INSERT_BATCH == 0 || i == docs.size() - 1) {
+                        pst.executeBatch();
+                        try (ResultSet gk = pst.getGeneratedKeys()) {
+                            while (gk != null && gk.next()) ids.add(gk.getInt(1));
+                        }
+                    }
+                }
+                DeltaTracker.recordChanges(con, ids);
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+        for (NewDocument d : docs) {
+            DuplicateDetector.added(d.hash);
+            StatusCounters.recordUpload(userEmail);
+        }
+        return ids;
+    }
+
+    /** Assign a document to an admin for review. Only the uploader or an admin may do this. */
+    public static void assign(int docId, String actingEmail, String adminEmail) throws IOException, SQLException {
+        if (!isAdmin(adminEmail)) throw new NotAllowedException(adminEmail + " is not an admin");
+        DocumentRow doc = require(docId);
+        if (!isAdmin(actingEmail) && !doc.userEmail.equalsIgnoreCase(actingEmail)) {
+            throw new NotAllowedException("Only the uploader or an admin can assign this document");
+        }
+        String previous = AssignmentStore.getAssignedAdmin(docId);
+        AssignmentStore.setAssignedAdmin(docId, adminEmail);
+        StatusCounters.recordAssignment(docId, previous, adminEmail, doc.status);
+    }
+
+    public static List<String> adminEmails() throws SQLException {
+        return UserDirectory.adminEmails();
+    }
+
+    public static DocumentRow find(int docId) throws SQLException {
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement("SELECT " + COLUMNS + " FROM documents WHERE id=?")) {
+                pst.setInt(1, docId);
+                try (ResultSet rs = pst.executeQuery()) {
+                    return rs.next() ? DocumentRow.from(rs) : null;
+                }
+            }
+        }
+    }
+
+    /** Every document of one uploader, oldest first. */
+    public static List<DocumentRow> listForUser(String userEmail) throws SQLException {
+        return list(userEmail, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * One page ordered by id, for keyset paging: pass the last id seen as afterId.
+     * @param userEmail uploader to restrict to, or null for all documents
+     * @param status status to restrict to, or null for all
+     */
+    public static List<DocumentRow> list(String userEmail, String status, int afterId, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM documents WHERE id > ?");
+        if (userEmail != null) sql.append(" AND user_email=?");
+        if (status != null) sql.append(" AND status=?");
+        sql.append(" ORDER BY id");
+        if (limit != Integer.MAX_VALUE) sql.append(" LIMIT ?");
+        List<DocumentRow> rows = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement(sql.toString())) {
+                int i = 1;
+                pst.setInt(i++, afterId);
+                if (userEmail != null) pst.setString(i++, userEmail);
+                if (status != null) pst.setString(i++, status.toUpperCase());
+                if (limit != Integer.MAX_VALUE) pst.setInt(i, limit);
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) rows.add(DocumentRow.from(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /** Approve or reject documents; see {@link BulkReview#apply}. */
+    public static Map<Integer, BulkReview.Outcome> review(List<Integer> ids, String newStatus, String adminEmail)
+            throws IOException, SQLException {
+        if (!"APPROVED".equalsIgnoreCase(newStatus) && !"REJECTED".equalsIgnoreCase(newStatus)) {
+            throw new IllegalArgumentException("Status must be APPROVED or REJECTED");
+        }
+        if (!isAdmin(adminEmail)) throw new NotAllowedException("Only admins can review documents");
+        return BulkReview.apply(ids, newStatus.toUpperCase(), adminEmail);
+    }
+
+    /** Counts for the account: documents assigned to it for admins, its uploads otherwise. */
+    public static StatusCounters.Counts counts(String email) throws SQLException {
+        return isAdmin(email) ? StatusCounters.forAdmin(email) : StatusCounters.forUser(email);
+    }
+
+    public static StatusCounters.Counts totals() throws SQLException {
+        return StatusCounters.totals();
+    }
+
+    /**
+     * The document if the account may download it: admins any document, uploaders their own
+     * once APPROVED.
+     */
+    public static DocumentRow downloadable(int docId, String email) throws IOException, SQLException {
+        DocumentRow doc = require(docId);
+        if (isAdmin(email)) return doc;
+        if (!doc.userEmail.equalsIgnoreCase(email)) throw new NotFoundException(docId); // do not reveal other users' ids
+        if (!"APPROVED".equalsIgnoreCase(doc.status)) throw new NotAllowedException("Only APPROVED documents can be downloaded");
+        return doc;
+    }
+
+    /**
+     * Role of the account if the password matches, checked as the login window does: an admin
+     * still awaiting verification is refused with NotAllowedException. Null for a wrong email
+     * or password.
+     */
+    public static String authenticate(String email, String password) throws IOException, SQLException {
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement("SELECT role FROM users WHERE email=? AND password=?")) {
+                pst.setString(1, email);
+                pst.setString(2, password);
+                try (ResultSet rs = pst.executeQuery()) {
+                    if (!rs.next()) return null;
+                    String role = rs.getString("role");
+                    if ("ADMIN".equalsIgnoreCase(role) && !VerifiedAdminStore.isVerified(email)) {
+                        throw new NotAllowedException("This admin account is pending verification");
+                    }
+                    return role;
+                }
+            }
+        }
+    }
+
+    public static boolean isAdmin(String email) throws SQLException {
+        return "ADMIN".equalsIgnoreCase(UserDirectory.roleOf(email));
+    }
+
+    private static DocumentRow require(int docId) throws IOException, SQLException {
+        DocumentRow doc = find(docId);
+        if (doc == null) throw new NotFoundException(docId);
+        return doc;
+    }
+}
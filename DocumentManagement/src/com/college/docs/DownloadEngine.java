@@ -0,0 +1,127 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Copies a stored document to a user-chosen location with FileChannel.transferTo, which lets
+ * the kernel copy without going through Java buffers where the platform supports it.
+ *
+ * The copy runs in chunks so progress can be reported and cancellation checked between them.
+ * It is written to a temp file next to the destination and only then renamed over the
+ * destination. When a stored hash_value is given, the source is hashed on a second thread
+ * while transferTo copies it. The two reads mostly share the page cache, so verifying adds
+ * little to the copy time, and a mismatch discards the download before the rename.
+ */
+public class DownloadEngine {
+
+    private static final long CHUNK = 16L << 20; // 16 MB between progress callbacks
+    private static final ExecutorService HASHERS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "download-hash");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Progress callback, invoked on the copying thread. */
+    public interface Progress {
+        void update(long done, long total, double megabytesPerSecond);
+    }
+
+    /** Thrown when the user cancels a transfer; the partial file has already been removed. */
+    public static class CancelledException extends InterruptedIOException {
+        private static final long serialVersionUID = 1L;
+
+        public CancelledException() {
+            super("Transfer cancelled");
+        }
+    }
+
+    /** Thrown when the copied bytes do not match the stored hash. */
+    public static class VerificationException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public VerificationException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @param expectedHash stored hash_value, or null to skip verification
+     * @return average throughput in MB/s
+     */
+    public static double download(Path source, Path destination, String expectedHash,
+                                  Progress progress, BooleanSupplier cancelled) throws IOException {
+        Path dir = destination.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, "." + destination.getFileName() + "-", ".part");
+        long start = System.nanoTime();
+        boolean ok = false;
+        Diagnostics.Span span = Diagnostics.transfer("download", destination);
+        boolean verify = expectedHash != null && !expectedHash.isEmpty();
+        Future<String> hash = verify ? HASHERS.submit(() -> UploadPipeline.sha256Hex(source)) : null;
+        try {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long total = in.size();
+                long pos = 0;
+                while (pos < total) {
+                    if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) throw new CancelledException();
+                    long count = Math.min(CHUNK, total - pos);
+                    long n = in.transferTo(pos, count, out);
+                    if (n <= 0) break; // source shrank underneath us
+                    pos += n;
+                    span.bytes(n);
+                    if (progress != null) progress.update(pos, total, mbPerSecond(pos, System.nanoTime() - start));
+                }
+                if (pos != total) throw new IOException("Source changed while copying (" + pos + " of " + total + " bytes)");
+                out.force(false);
+            }
+            if (verify) {
+                String actual = await(hash);
+                if (!actual.equalsIgnoreCase(expectedHash.trim())) {
+                    throw new VerificationException("Downloaded file does not match the stored fingerprint");
+                }
+            }
+            try {
+                Files.move(tmp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+            ok = true;
+            return mbPerSecond(Files.size(destination), System.nanoTime() - start);
+        } finally {
+            if (!ok) {
+                if (hash != null) hash.cancel(true);
+                span.failed();
+                Files.deleteIfExists(tmp);
+            }
+            span.close();
+        }
+    }
+
+    private static String await(Future<String> hash) throws IOException {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancelledException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Could not verify the download", e.getCause());
+        }
+    }
+
+    static double mbPerSecond(long bytes, long nanos) {
+        return nanos <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,362 @@
+package com.college.docs;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers "is this content already stored?" for uploads without a database round trip in the
+ * common case where it is not.
+ *
+ * Every documents.hash_value is loaded once in the background into a sorted off-heap array of
+ * 32-byte SHA-256 digests, fronted by a Bloom filter (about 1% false positives). Hashes stored
+ * since then are kept in a small set that is merged into the array in the background. Rows
+ * added by other clients are picked up by reading new ids every {@value #REFRESH_MS} ms on the
+ * index thread, so an upload never waits for that read. A miss is trusted while the last read
+ * succeeded recently; when reads keep failing, checks go to the database. A hit is confirmed
+ * with the database, because rows can be deleted, and so is every check made before the first
+ * load finishes.
+ */
+public class DuplicateDetector {
+
+    private static final int DIGEST = 32;
+    private static final int LOAD_BATCH = 10_000;
+    private static final int MERGE_AT = 4096;
+    private static final long REFRESH_MS = 5_000;
+    private static final long STALE_MS = 3 * REFRESH_MS; // a few refreshes in a row have failed
+    private static final int ID_OVERLAP = 256;
+    private static final int BLOOM_HASHES = 7;
+    private static final int BLOOM_BITS_PER_ENTRY = 10;
+
+    private static final ScheduledExecutorService WORKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "duplicate-index");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+    private static final AtomicBoolean SCHEDULED = new AtomicBoolean();
+    private static final AtomicBoolean MERGING = new AtomicBoolean();
+
+    private static volatile Index index;
+    private static final Set<String> RECENT = ConcurrentHashMap.newKeySet();
+    private static volatile int lastId;
+    private static volatile long lastRefresh;
+    private static final Object REFRESH_LOCK = new Object();
+    private static volatile long loadMillis;
+    private static volatile String lastError;
+
+    private static final AtomicLong MEMORY_MISSES = new AtomicLong();
+    private static final AtomicLong FALSE_POSITIVES = new AtomicLong();
+    private static final AtomicLong DB_CHECKS = new AtomicLong();
+    private static final AtomicLong STALE_CHECKS = new AtomicLong();
+
+    /** Sorted digests off the heap plus the Bloom filter over them; immutable once published. */
+    private static final class Index {
+        final ByteBuffer digests; // count records of 4 big-endian longs, ascending, no repeats
+        final int count;
+        final long[] bloom;
+        final long bloomMask;
+
+        Index(ByteBuffer digests, int count) {
+            this.digests = digests;
+            this.count = count;
+            long bits = Long.highestOneBit(Math.max(1 << 16, (long) count * BLOOM_BITS_PER_ENTRY) - 1) << 1;
+            this.bloom = new long[(int) (bits >>> 6)];
+            this.bloomMask = bits - 1;
+            for (int i = 0; i < count; i++) {
+                int at = i * DIGEST;
+                long h1 = digests.getLong(at), h2 = digests.getLong(at + 8) | 1;
+                for (int k = 0; k < BLOOM_HASHES; k++) {
+                    long bit = (h1 + k * h2) & bloomMask;
+                    bloom[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+        }
+
+        boolean mightContain(long[] key) {
+            long h1 = key[0], h2 = key[1] | 1;
+            for (int k = 0; k < BLOOM_HASHES; k++) {
+                long bit = (h1 + k * h2) & bloomMask;
+                if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        boolean contains(long[] key) {
+            int lo = 0, hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = compare(digests, mid * DIGEST, key);
+                if (c == 0) return true;
+                if (c < 0) lo = mid + 1;
+                else hi = mid - 1;
+            }
+            return false;
+        }
+    }
+
+    /** Load the known hashes on a background thread, once per process. */
+    public static void loadInBackground() {
+        if (!STARTED.compareAndSet(false, true)) return;
+        WORKER.execute(() -> {
+            long start = System.nanoTime();
+            try (Connection con = connect()) {
+                synchronized (REFRESH_LOCK) {
+                    List<String> hashes = new ArrayList<>();
+                    int after = fetchSince(con, 0, hashes);
+                    index = build(null, hashes);
+                    lastId = after;
+                    lastRefresh = System.currentTimeMillis();
+                }
+                loadMillis = (System.nanoTime() - start) / 1_000_000;
+                lastError = null;
+                if (SCHEDULED.compareAndSet(false, true)) {
+                    WORKER.scheduleWithFixedDelay(DuplicateDetector::refreshQuietly, REFRESH_MS, REFRESH_MS, TimeUnit.MILLISECONDS);
+                }
+            } catch (SQLException e) {
+                STARTED.set(false); // try again on the next call
+                lastError = "load failed: " + e.getMessage();
+            }
+        });
+    }
+
+    /**
+     * Whether a document with this hash may exist, from memory only: false is definite, true
+     * means the database has to be asked. Always true until the first load finishes, and while
+     * the index has not caught up with other clients' uploads for {@value #STALE_MS} ms.
+     */
+    public static boolean mightExist(String hash) {
+        Index idx = index;
+        if (idx == null) {
+            loadInBackground();
+            return true;
+        }
+        if (stale()) {
+            STALE_CHECKS.incrementAndGet();
+            return true;
+        }
+        return inIndex(hash);
+    }
+
+    /**
+     * Whether a document with this hash exists; only probable hits reach the database, and
+     * every check while the index is not loaded or has gone stale.
+     */
+    public static boolean exists(Connection con, String hash) throws SQLException {
+        if (index == null) {
+            loadInBackground();
+        } else if (stale()) {
+            STALE_CHECKS.incrementAndGet();
+        } else if (!inIndex(hash)) {
+            return false;
+        }
+        DB_CHECKS.incrementAndGet();
+        try (PreparedStatement check = con.prepareStatement("SELECT id FROM documents WHERE hash_value=? LIMIT 1")) {
+            check.setString(1, hash);
+            try (ResultSet rs = check.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // RECENT before index: a merge publishes the new index before clearing what it merged
+    private static boolean inIndex(String hash) {
+        String h = hash.trim().toLowerCase();
+        if (RECENT.contains(h)) return true;
+        Index idx = index;
+        long[] key = parse(h);
+        if (key == null) return true;
+        if (!idx.mightContain(key)) {
+            MEMORY_MISSES.incrementAndGet();
+            return false;
+        }
+        if (!idx.contains(key)) {
+            FALSE_POSITIVES.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /** Record a hash that was just stored by this process. */
+    public static void added(String hash) {
+        if (hash == null) return;
+        RECENT.add(hash.trim().toLowerCase());
+        if (RECENT.size() >= MERGE_AT && index != null && MERGING.compareAndSet(false, true)) {
+            WORKER.execute(DuplicateDetector::merge);
+        }
+    }
+
+    public static String stats() {
+        Index idx = index;
+        String error = lastError == null ? "" : "; last " + lastError;
+        if (idx == null) return "duplicate index: not loaded" + error;
+        return String.format("duplicate index: %d hashes (%d MB off-heap) loaded in %d ms, %d recent; %d answered in memory, "
+                        + "%d filter false positives, %d sent to the DB while stale, %d DB checks%s",
+                idx.count, ((long) idx.count * DIGEST) >> 20, loadMillis, RECENT.size(), MEMORY_MISSES.get(),
+                FALSE_POSITIVES.get(), STALE_CHECKS.get(), DB_CHECKS.get(), error);
+    }
+
+    private static boolean stale() {
+        return System.currentTimeMillis() - lastRefresh >= STALE_MS;
+    }
+
+    // scheduled on WORKER; a failure leaves lastRefresh alone, so the index goes stale
+    private static void refreshQuietly() {
+        try (Connection con = connect()) {
+            refresh(con);
+            lastError = null;
+        } catch (SQLException | RuntimeException e) {
+            lastError = "refresh failed: " + e.getMessage();
+        }
+    }
+
+    // rows inserted by other clients since the last look; the last few ids are read again
+    // because an insert can commit after a higher id was already seen
+    private static void refresh(Connection con) throws SQLException {
+        synchronized (REFRESH_LOCK) {
+            List<String> hashes = new ArrayList<>();
+            lastId = Math.max(lastId, fetchSince(con, Math.max(0, lastId - ID_OVERLAP), hashes));
+            for (String h : hashes) added(h);
+            lastRefresh = System.currentTimeMillis();
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        Connection con = DBConnection.getConnection();
+        if (con == null) throw new SQLException("No database connection");
+        return con;
+    }
+
+    private static void merge() {
+        try {
+            List<String> batch = new ArrayList<>(RECENT);
+            index = build(index, batch);
+            RECENT.removeAll(batch);
+        } finally {
+            MERGING.set(false);
+        }
+    }
+
+    // appends hash_value of every row with id > afterId; returns the highest id seen
+    private static int fetchSince(Connection con, int afterId, List<String> into) throws SQLException {
+        String sql = "SELECT id, hash_value FROM documents WHERE id > ? ORDER BY id LIMIT ?";
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            while (true) {
+                pst.setInt(1, afterId);
+                pst.setInt(2, LOAD_BATCH);
+                int rows = 0;
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        afterId = rs.getInt(1);
+                        String h = rs.getString(2);
+                        if (h != null) into.add(h.trim().toLowerCase());
+                    }
+                }
+                if (rows < LOAD_BATCH) return afterId;
+            }
+        }
+    }
+
+    // a new index holding the old digests plus the given hashes
+    private static Index build(Index old, List<String> hashes) {
+        int oldCount = old == null ? 0 : old.count;
+        ByteBuffer buf = ByteBuffer.allocateDirect(Math.max(1, oldCount + hashes.size()) * DIGEST);
+        if (old != null) buf.put(0, old.digests, 0, oldCount * DIGEST);
+        int n = oldCount;
+        for (String h : hashes) {
+            long[] key = parse(h);
+            if (key == null) continue;
+            for (int w = 0; w < 4; w++) buf.putLong(n * DIGEST + w * 8, key[w]);
+            n++;
+        }
+        sort(buf, 0, n - 1);
+        // drop repeats: several rows can share one hash
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique > 0 && compareRecords(buf, (unique - 1) * DIGEST, i * DIGEST) == 0) continue;
+            if (unique != i) buf.put(unique * DIGEST, buf, i * DIGEST, DIGEST);
+            unique++;
+        }
+        return new Index(buf, unique);
+    }
+
+    private static long[] parse(String hex) {
+        if (hex.length() != DIGEST * 2) return null;
+        long[] key = new long[4];
+        for (int w = 0; w < 4; w++) {
+            long v = 0;
+            for (int i = 0; i < 16; i++) {
+                int d = Character.digit(hex.charAt(w * 16 + i), 16);
+                if (d < 0) return null;
+                v = (v << 4) | d;
+            }
+            key[w] = v;
+        }
+        return key;
+    }
+
+    private static int compare(ByteBuffer buf, int at, long[] key) {
+        for (int w = 0; w < 4; w++) {
+            int c = Long.compareUnsigned(buf.getLong(at + w * 8), key[w]);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private static int compareRecords(ByteBuffer buf, int a, int b) {
+        for (int w = 0; w < 4; w++) {
+            int c = Long.compareUnsigned(buf.getLong(a + w * 8), buf.getLong(b + w * 8));
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    // in-place quicksort of 32-byte records, so the digests never go through the heap
+    private static void sort(ByteBuffer buf, int lo, int hi) {
+        while (lo < hi) {
+            if (hi - lo < 16) {
+                for (int i = lo + 1; i <= hi; i++) {
+                    for (int j = i; j > lo && compareRecords(buf, (j - 1) * DIGEST, j * DIGEST) > 0; j--) swap(buf, j - 1, j);
+                }
+                return;
+            }
+            swap(buf, lo + (hi - lo) / 2, hi); // SHA-256 digests are uniform, so the middle is a fine pivot
+            int store = lo;
+            for (int i = lo; i < hi; i++) {
+                if (compareRecords(buf, i * DIGEST, hi * DIGEST) < 0) swap(buf, i, store++);
+            }
+            swap(buf, store, hi);
+            // recurse into the smaller side to bound the stack
+            if (store - lo < hi - store) {
+                sort(buf, lo, store - 1);
+                lo = store + 1;
+            } else {
+                sort(buf, store + 1, hi);
+                hi = store - 1;
+            }
+        }
+    }
+
+    private static void swap(ByteBuffer buf, int i, int j) {
+        if (i == j) return;
+        for (int w = 0; w < 4; w++) {
+            int a = i * DIGEST + w * 8, b = j * DIGEST + w * 8;
+            long t = buf.getLong(a);
+            buf.putLong(a, buf.getLong(b));
+            buf.putLong(b, t);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.college.docs;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide cache of decoded images scaled to a given size, shared by all windows.
+ *
+ * Decoding and scaling run on a background thread. Scaling halves the image with bilinear
+ * filtering until it is close to the target and then draws it once more at the exact size,
+ * which looks like SCALE_SMOOTH at a fraction of the cost. Results are kept in an LRU bounded
+ * by pixel memory; an entry is dropped when its source file changes.
+ */
+public class ImageAssets {
+
+    private static final long MAX_BYTES = 96L << 20; // ~ a dozen full-HD ARGB images
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "image-decoder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Map<Key, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<Key, CompletableFuture<BufferedImage>> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static long cachedBytes;
+
+    private static final class Key {
+        final String path;
+        final int width;
+        final int height;
+
+        Key(String path, int width, int height) {
+            this.path = new File(path).getAbsolutePath();
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return width == k.width && height == k.height && path.equals(k.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, width, height);
+        }
+    }
+
+    private static final class Entry {
+        final BufferedImage image;
+        final long sourceModified;
+
+        Entry(BufferedImage image, long sourceModified) {
+            this.image = image;
+            this.sourceModified = sourceModified;
+        }
+
+        long bytes() {
+            return (long) image.getWidth() * image.getHeight() * 4;
+        }
+    }
+
+    /** The cached image, or null if it has not been loaded at this size yet. */
+    public static BufferedImage getIfCached(String path, int width, int height) {
+        Key key = new Key(path, width, height);
+        long modified = new File(path).lastModified();
+        synchronized (CACHE) {
+            Entry e = CACHE.get(key);
+            if (e == null) return null;
+            if (e.sourceModified != modified) { // file replaced on disk
+                CACHE.remove(key);
+                cachedBytes -= e.bytes();
+                return null;
+            }
+            return e.image;
+        }
+    }
+
+    /** Decode and scale in the background; concurrent requests for the same key share the work. */
+    public static CompletableFuture<BufferedImage> load(String path, int width, int height) {
+        BufferedImage cached = getIfCached(path, width, height);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        Key key = new Key(path, width, height);
+        CompletableFuture<BufferedImage> f = IN_FLIGHT.computeIfAbsent(key,
+                k -> CompletableFuture.supplyAsync(() -> decode(k, path, width, height), DECODER));
+        f.whenComplete((img, ex) -> IN_FLIGHT.remove(key, f));
+        return f;
+    }
+
+    private static BufferedImage decode(Key key, String path, int width, int height) {
+        try {
+            File file = new File(path);
+            long modified = file.lastModified();
+            BufferedImage source = ImageIO.read(file);
+            if (source == null) throw new IOException("Unsupported image: " + path);
+            BufferedImage scaled = scale(source, width, height);
+            put(key, new Entry(scaled, modified));
+            return scaled;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Warm the cache for a window that is about to open. */
+    public static void prefetch(String path, int width, int height) {
+        load(path, width, height).exceptionally(ex -> null);
+    }
+
+    /**
+     * Show the image on a label: immediately when cached, otherwise as soon as it is ready.
+     * The label keeps its layout size meanwhile so nothing jumps when the image arrives.
+     */
+    public static void bind(JLabel label, String path, int width, int height) {
+        label.setPreferredSize(new Dimension(width, height));
+        BufferedImage cached = getIfCached(path, width, height);
+        if (cached != null) {
+            label.setIcon(new ImageIcon(cached));
+            return;
+        }
+        load(path, width, height).whenComplete((img, ex) -> {
+            if (ex != null) {
+                System.err.println("Could not load image " + path + ": " + ex.getMessage());
+                return;
+            }
+            SwingUtilities.invokeLater(() -> label.setIcon(new ImageIcon(img)));
+        });
+    }
+
+    private static void put(Key key, Entry entry) {
+        synchronized (CACHE) {
+            Entry old = CACHE.put(key, entry);
+            if (old != null) cachedBytes -= old.bytes();
+            cachedBytes += entry.bytes();
+            Iterator<Entry> it = CACHE.values().iterator();
+            while (cachedBytes > MAX_BYTES && CACHE.size() > 1 && it.hasNext()) {
+                Entry eldest = it.next();
+                if (eldest == entry) continue;
+                cachedBytes -= eldest.bytes();
+                it.remove();
+            }
+        }
+    }
+
+    // progressive bilinear: halve while more than 2x too big, then one final exact-size pass
+    static BufferedImage scale(BufferedImage source, int width, int height) {
+        int type = source.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            if (w > width * 2) w /= 2;
+            else w = width;
+            if (h > height * 2) h /= 2;
+            else h = height;
+            BufferedImage next = new BufferedImage(Math.max(1, w), Math.max(1, h), type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, next.getWidth(), next.getHeight(), null);
+            g.dispose();
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+}
@@ -1,12 +1,31 @@
 package com.college.docs;
 
 import javax.imageio.ImageIO;
+import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 
 public class ImagePlaceholderGenerator {
 
+    /** Generate both default images if missing. Does file I/O, so call it off the EDT. */
+    public static synchronized void generateDefaultsIfMissing() {
+        generateBackgroundIfMissing("resources/background.jpg");
+        generateIfMissing("resources/document.png");
+    }
+
+    /**
+     * Like {@link ImageAssets#bind}, but first generates the default images (first run only)
+     * on the UI worker pool, so a window's constructor never writes files on the EDT.
+     */
+    public static void bind(JLabel label, String path, int width, int height) {
+        label.setPreferredSize(new Dimension(width, height));
+        UiTasks.executor().execute(() -> {
+            generateDefaultsIfMissing();
+            SwingUtilities.invokeLater(() -> ImageAssets.bind(label, path, width, height));
+        });
+    }
+
     /**
      * Generate a simple document-style PNG placeholder if the file does not exist.
      * @param path path to write (e.g., "resources/document.png")
@@ -0,0 +1,192 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link KeyValueStore} in the application database (-Ddms.store=jdbc). All stores share one
+ * table, partitioned by store name; the table is created on first use. Batches are written
+ * with JDBC batch statements in a single transaction, and reads by key use chunked IN lists.
+ *
+ * On first use each store is seeded once from its text journal, so switching a site to jdbc
+ * keeps its existing assignments and admins. A marker row in the {@value #SEEDED} partition
+ * records that a store was seeded; it is claimed in the seeding transaction, so concurrent
+ * clients wait for one seed instead of each copying the file. A store that already has rows
+ * is only marked, never overwritten from the file.
+ */
+public class JdbcKeyValueStore implements KeyValueStore {
+
+    private static final int CHUNK = 500;
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS kv_store ("
+            + "store VARCHAR(64) NOT NULL, k VARCHAR(255) NOT NULL, v VARCHAR(1024) NOT NULL, "
+            + "PRIMARY KEY (store, k))";
+    static final String SEEDED = "kv_seeded";
+    private static volatile boolean tableReady;
+
+    private final String store;
+    private final Path seedFile;
+    private final TextKeyValueStore.Format seedFormat;
+    private volatile boolean seeded;
+
+    public JdbcKeyValueStore(String store) {
+        this(store, null, null);
+    }
+
+    /** A store seeded once from seedFile (in seedFormat) if its partition has never been seeded. */
+    public JdbcKeyValueStore(String store, Path seedFile, TextKeyValueStore.Format seedFormat) {
+        this.store = store;
+        this.seedFile = seedFile;
+        this.seedFormat = seedFormat;
+        this.seeded = seedFile == null;
+    }
+
+    @Override
+    public Map<String, String> loadAll() throws IOException {
+        Map<String, String> out = new LinkedHashMap<>();
+        try (Connection con = connect();
+             PreparedStatement pst = con.prepareStatement("SELECT k, v FROM kv_store WHERE store=? ORDER BY k")) {
+            pst.setString(1, store);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) out.put(rs.getString(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not read store " + store, e);
+        }
+        return out;
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) throws IOException {
+        Map<String, String> out = new LinkedHashMap<>();
+        List<String> all = new ArrayList<>(keys);
+        try (Connection con = connect()) {
+            for (int from = 0; from < all.size(); from += CHUNK) {
+                List<String> chunk = all.subList(from, Math.min(all.size(), from + CHUNK));
+                StringBuilder in = new StringBuilder();
+                for (int i = 0; i < chunk.size(); i++) in.append(i == 0 ? "?" : ",?");
+                try (PreparedStatement pst = con.prepareStatement("SELECT k, v FROM kv_store WHERE store=? AND k IN (" + in + ")")) {
+                    pst.setString(1, store);
+                    for (int i = 0; i < chunk.size(); i++) pst.setString(i + 2, chunk.get(i));
+                    try (ResultSet rs = pst.executeQuery()) {
+                        while (rs.next()) out.put(rs.getString(1), rs.getString(2));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not read store " + store, e);
+        }
+        return out;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws IOException {
+        if (entries.isEmpty()) return;
+        try (Connection con = connect()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement upsert = con.prepareStatement(
+                    "INSERT INTO kv_store (store, k, v) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE v=VALUES(v)");
+                 PreparedStatement delete = con.prepareStatement("DELETE FROM kv_store WHERE store=? AND k=?")) {
+                boolean upserts = false, deletes = false;
+                for (Map.Entry<String, String> e : entries.entrySet()) {
+                    if (e.getValue() == null) {
+                        delete.setString(1, store);
+                        delete.setString(2, e.getKey());
+                        delete.addBatch();
+                        deletes = true;
+                    } else {
+                        upsert.setString(1, store);
+                        upsert.setString(2, e.getKey());
+                        upsert.setString(3, e.getValue());
+                        upsert.addBatch();
+                        upserts = true;
+                    }
+                }
+                if (upserts) upsert.executeBatch();
+                if (deletes) delete.executeBatch();
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not write store " + store, e);
+        }
+    }
+
+    /** Unknown: other clients write to the same table without a cheap change marker. */
+    @Override
+    public long version() {
+        return -1;
+    }
+
+    private Connection connect() throws IOException, SQLException {
+        Connection con = DBConnection.getConnection();
+        if (con == null) throw new SQLException("No database connection");
+        try {
+            if (!tableReady) {
+                try (Statement st = con.createStatement()) {
+                    st.execute(CREATE_TABLE);
+                }
+                tableReady = true;
+            }
+            if (!seeded) seed(con);
+        } catch (IOException | SQLException | RuntimeException e) {
+            con.close();
+            throw e;
+        }
+        return con;
+    }
+
+    private synchronized void seed(Connection con) throws IOException, SQLException {
+        if (seeded) return;
+        con.setAutoCommit(false);
+        try {
+            int claimed;
+            try (PreparedStatement pst = con.prepareStatement("INSERT IGNORE INTO kv_store (store, k, v) VALUES (?, ?, NOW())")) {
+                pst.setString(1, SEEDED);
+                pst.setString(2, store);
+                claimed = pst.executeUpdate(); // blocks while another client is seeding this store
+            }
+            if (claimed == 1 && isEmpty(con) && Files.exists(seedFile)) {
+                Map<String, String> entries = new LinkedHashMap<>();
+                for (String line : new JournalFile(seedFile).readLines()) seedFormat.apply(line, entries);
+                try (PreparedStatement pst = con.prepareStatement("INSERT IGNORE INTO kv_store (store, k, v) VALUES (?, ?, ?)")) {
+                    for (Map.Entry<String, String> e : entries.entrySet()) {
+                        pst.setString(1, store);
+                        pst.setString(2, e.getKey());
+                        pst.setString(3, e.getValue());
+                        pst.addBatch();
+                    }
+                    pst.executeBatch();
+                }
+            }
+            con.commit();
+        } catch (IOException | SQLException | RuntimeException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+        }
+        seeded = true;
+    }
+
+    private boolean isEmpty(Connection con) throws SQLException {
+        try (PreparedStatement pst = con.prepareStatement("SELECT 1 FROM kv_store WHERE store=? LIMIT 1")) {
+            pst.setString(1, store);
+            try (ResultSet rs = pst.executeQuery()) {
+                return !rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+
+/**
+ * Line-oriented append-only file used by the text stores under resources/.
+ *
+ * Records are appended one write per batch; compaction rewrites the whole file through a
+ * temp file and an atomic rename so a crash never leaves a half-written store behind.
+ * Appends and rewrites hold an exclusive {@link FileLock} on a sibling ".lock" file (the
+ * journal itself is replaced by the rename, so a lock on it would not hold), so a rewrite in
+ * one process cannot drop records another process is appending. The lock file also holds two
+ * counters, bumped under the lock: a generation for every append or rewrite, and the number
+ * of rewrites, so readers can tell a grown file from a replaced one.
+ */
+class JournalFile {
+
+    // one shared background thread for all store compactions
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "store-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // FileLock is per process, so threads sharing a journal also queue on one monitor per file
+    private static final Map<Path, Monitor> MONITORS = new ConcurrentHashMap<>();
+
+    private static final class Monitor {
+        boolean held; // guarded by the monitor itself
+        FileChannel channel; // the lock file, while held
+    }
+
+    interface LockedWork<T> {
+        T run() throws IOException;
+    }
+
+    private final Path file;
+    private final Path lockFile;
+    private final Monitor monitor;
+
+    JournalFile(Path file) {
+        this.file = file;
+        this.lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        this.monitor = MONITORS.computeIfAbsent(file.toAbsolutePath().normalize(), k -> new Monitor());
+    }
+
+    Path path() {
+        return file;
+    }
+
+    void ensureExists() throws IOException {
+        Path parent = file.getParent();
+        if (parent != null && !Files.exists(parent)) Files.createDirectories(parent);
+        if (!Files.exists(file)) Files.createFile(file);
+    }
+
+    /** The bytes from offset to the end of the file; call under {@link #locked} to get whole records. */
+    byte[] readFrom(long offset) throws IOException {
+        try (Diagnostics.Span span = span("read");
+             FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) Math.max(0, ch.size() - offset));
+            while (buf.hasRemaining() && ch.read(buf, offset + buf.position()) > 0) {}
+            span.bytes(buf.position());
+            return Arrays.copyOf(buf.array(), buf.position());
+        }
+    }
+
+    long size() throws IOException {
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    /** Bumped by every append and rewrite from any process; 0 before the first. */
+    long generation() throws IOException {
+        return counters()[0];
+    }
+
+    /** How many times the file has been replaced by {@link #update}. */
+    long rewrites() throws IOException {
+        return counters()[1];
+    }
+
+    // closing a second channel on the lock file would drop this process's lock on some systems,
+    // so read through the holder's channel, or open one only while no thread here holds the lock
+    private long[] counters() throws IOException {
+        synchronized (monitor) {
+            if (monitor.channel != null) return counters(monitor.channel);
+            if (!Files.exists(lockFile)) return new long[2];
+            try (FileChannel ch = FileChannel.open(lockFile, StandardOpenOption.READ)) {
+                return counters(ch);
+            }
+        }
+    }
+
+    private static long[] counters(FileChannel ch) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(16);
+        while (b.hasRemaining() && ch.read(b, b.position()) > 0) {}
+        return b.hasRemaining() ? new long[2] : new long[]{b.getLong(0), b.getLong(8)};
+    }
+
+    // caller holds the lock
+    private void bump(boolean rewrite) throws IOException {
+        long[] c = counters(monitor.channel);
+        ByteBuffer b = ByteBuffer.allocate(16).putLong(0, c[0] + 1).putLong(8, c[1] + (rewrite ? 1 : 0));
+        while (b.hasRemaining()) monitor.channel.write(b, b.position());
+    }
+
+    List<String> readLines() throws IOException {
+        try (Diagnostics.Span span = span("read")) {
+            ensureExists();
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            span.bytes(Files.size(file));
+            return lines;
+        }
+    }
+
+    void append(List<String> records) throws IOException {
+        if (records.isEmpty()) return;
+        try (Diagnostics.Span span = span("append")) {
+            ensureExists();
+            StringBuilder sb = new StringBuilder();
+            for (String r : records) sb.append(r).append(System.lineSeparator());
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+            locked(() -> {
+                Files.write(file, bytes, StandardOpenOption.APPEND);
+                bump(false);
+                return null;
+            });
+            span.bytes(bytes.length);
+        }
+    }
+
+    void append(String record) throws IOException {
+        append(List.of(record));
+    }
+
+    /** Replace the file contents atomically (write temp file, then rename over the original). */
+    void rewrite(List<String> lines) throws IOException {
+        update(current -> lines);
+    }
+
+    /**
+     * Re-read the file and replace it with change(current lines), holding the lock throughout
+     * so no other writer's records are lost. Returns the lines written.
+     */
+    List<String> update(UnaryOperator<List<String>> change) throws IOException {
+        try (Diagnostics.Span span = span("rewrite")) {
+            ensureExists();
+            return locked(() -> {
+                List<String> lines = change.apply(Files.readAllLines(file, StandardCharsets.UTF_8));
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(tmp, lines, StandardCharsets.UTF_8);
+                span.bytes(Files.size(tmp));
+                try {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                bump(true);
+                return lines;
+            });
+        }
+    }
+
+    /**
+     * Run work holding this journal's lock against other threads and processes. Reentrant, so
+     * work may append to or rewrite the journal.
+     */
+    <T> T locked(LockedWork<T> work) throws IOException {
+        synchronized (monitor) {
+            if (monitor.held) return work.run();
+            try (FileChannel ch = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = ch.lock();
+                monitor.held = true;
+                monitor.channel = ch;
+                try {
+                    return work.run();
+                } finally {
+                    monitor.held = false;
+                    monitor.channel = null;
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    private Diagnostics.Span span(String operation) {
+        return Diagnostics.store(operation, file.getFileName().toString(), file);
+    }
+
+    static void runInBackground(Runnable task) {
+        COMPACTOR.execute(task);
+    }
+}
@@ -0,0 +1,78 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Storage SPI behind the metadata stores (assignments, verified admins, pending admin
+ * registrations): one named map of string keys to string values.
+ *
+ * The backend is chosen per process with -Ddms.store=text|memory|jdbc:
+ * <ul>
+ * <li>text (default): the journal files under resources/, see {@link TextKeyValueStore}</li>
+ * <li>memory: nothing persisted, for tests and benchmarks, see {@link MemoryKeyValueStore}</li>
+ * <li>jdbc: one shared table in the application database, see {@link JdbcKeyValueStore}</li>
+ * </ul>
+ * Implementations are thread-safe. Writes are batched: one putAll is one append, one
+ * transaction or one lock acquisition, whatever the number of entries.
+ */
+public interface KeyValueStore {
+
+    /** Every entry, in the backend's natural order. */
+    Map<String, String> loadAll() throws IOException;
+
+    /** Values for the given keys; absent keys are left out. */
+    Map<String, String> getAll(Collection<String> keys) throws IOException;
+
+    /** Insert, replace or (for a null value) delete every entry in one batch. */
+    void putAll(Map<String, String> entries) throws IOException;
+
+    /**
+     * A number that changes whenever the data changes, including changes made by other
+     * processes, or -1 if the backend cannot tell cheaply (callers then reload periodically).
+     */
+    long version() throws IOException;
+
+    default String get(String key) throws IOException {
+        return getAll(Collections.singleton(key)).get(key);
+    }
+
+    default void put(String key, String value) throws IOException {
+        Map<String, String> one = new HashMap<>(2);
+        one.put(key, value);
+        putAll(one);
+    }
+
+    default void remove(String key) throws IOException {
+        put(key, null);
+    }
+
+    /**
+     * Open a store with the configured backend.
+     * @param name store name, used as the JDBC partition
+     * @param textFile the file used by the text backend, and to seed a new JDBC partition
+     * @param textFormat line format of that file
+     */
+    static KeyValueStore open(String name, Path textFile, TextKeyValueStore.Format textFormat) {
+        String backend = backend();
+        switch (backend) {
+            case "memory":
+                return new MemoryKeyValueStore();
+            case "jdbc":
+                return new JdbcKeyValueStore(name, textFile, textFormat);
+            case "text":
+                return new TextKeyValueStore(textFile, textFormat);
+            default:
+                throw new IllegalArgumentException("Unknown dms.store backend: " + backend);
+        }
+    }
+
+    /** The configured backend name: text, memory or jdbc. */
+    static String backend() {
+        return System.getProperty("dms.store", "text").trim().toLowerCase();
+    }
+}
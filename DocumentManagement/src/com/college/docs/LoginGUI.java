@@ -1,7 +1,9 @@
 package com.college.docs;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
 import java.sql.*;
 
 public class LoginGUI extends JFrame {
@@ -10,20 +12,34 @@ public class LoginGUI extends JFrame {
     private JPasswordField passwordField;
     private JButton loginButton, registerButton;
     private JLabel feedbackLabel;
+    private final UiTasks tasks = new UiTasks(this);
 
     public LoginGUI() {
-        // Ensure placeholder images exist so the UI shows a background and overlay
-        ImagePlaceholderGenerator.generateBackgroundIfMissing("resources/background.jpg");
-        ImagePlaceholderGenerator.generateIfMissing("resources/document.png");
         setTitle("📂 College Document Management System");
         setSize(1200, 700); // Large window
         setLocationRelativeTo(null);
         setResizable(true);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        JLabel background = new JLabel(new ImageIcon("resources/background.jpg"));
+        // the window appears at once; the background is generated (first run) and decoded off the EDT
+        JLabel background = new JLabel();
         background.setLayout(new BorderLayout());
         setContentPane(background);
+        // not a tasks.run: this is not user-initiated, so no wait cursor
+        UiTasks.executor().execute(() -> {
+            // Ensure placeholder images exist so the UI shows a background and overlay
+            ImagePlaceholderGenerator.generateDefaultsIfMissing();
+            // scale the dashboard images while the user types, so the dashboard opens without decoding
+            AdminDashboard.prefetchImages();
+            UserDashboard.prefetchImages();
+            try {
+                ImageIcon icon = new ImageIcon(ImageIO.read(new File("resources/background.jpg")));
+                SwingUtilities.invokeLater(() -> background.setIcon(icon));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        StartupMetrics.trackFirstFrame(this);
 
         JLabel logo = new JLabel(new ImageIcon("resources/logo.png"));
         logo.setHorizontalAlignment(SwingConstants.CENTER);
@@ -151,30 +167,49 @@ public class LoginGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Please enter email and password!");
             return;
         }
-        try {
-            Connection con = DBConnection.getConnection();
+        loginButton.setEnabled(false);
+        StartupMetrics.loginRequested();
+        tasks.run(() -> {
             String sql = "SELECT * FROM users WHERE email=? AND password=?";
-            PreparedStatement pst = con.prepareStatement(sql);
-            pst.setString(1, email);
-            pst.setString(2, password);
-            ResultSet rs = pst.executeQuery();
-
-            if (rs.next()) {
-                String role = rs.getString("role");
-                if (role.equalsIgnoreCase("ADMIN")) {
+            try (Connection con = DBConnection.getConnection();
+                 PreparedStatement pst = con.prepareStatement(sql)) {
+                pst.setString(1, email);
+                pst.setString(2, password);
+                try (ResultSet rs = pst.executeQuery()) {
+                    if (!rs.next()) return "";
+                    String role = rs.getString("role");
                     // Check verification store (file-based) before allowing admin access
-                    if (VerifiedAdminStore.isVerified(email)) new AdminDashboard(email).setVisible(true);
-                    else JOptionPane.showMessageDialog(this, "Your admin account is pending verification. Please contact another admin to verify your account.");
-                } else new UserDashboard(email).setVisible(true);
+                    if (role.equalsIgnoreCase("ADMIN") && !VerifiedAdminStore.isVerified(email)) return "UNVERIFIED";
+                    return role;
+                }
+            }
+        }, role -> {
+            loginButton.setEnabled(true);
+            if (role.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Invalid email or password!");
+            } else if (role.equals("UNVERIFIED")) {
+                JOptionPane.showMessageDialog(this, "Your admin account is pending verification. Please contact another admin to verify your account.");
+            } else {
+                JFrame dashboard = role.equalsIgnoreCase("ADMIN") ? new AdminDashboard(email) : new UserDashboard(email);
+                StartupMetrics.trackDashboard(dashboard);
+                dashboard.setVisible(true);
                 dispose();
-            } else JOptionPane.showMessageDialog(this, "Invalid email or password!");
-        } catch (SQLException ex) {
+            }
+        }, ex -> {
+            loginButton.setEnabled(true);
             ex.printStackTrace();
             JOptionPane.showMessageDialog(this, "Database connection error!");
-        }
+        });
     }
 
     public static void main(String[] args) {
+        // connect while the login window is built and the user types
+        DBConnection.warmUpInBackground();
+        Diagnostics.startEdtWatchdog();
         SwingUtilities.invokeLater(() -> new LoginGUI().setVisible(true));
+        // move documents from the old flat uploaded_docs layout into the blob store
+        BlobMigration.startInBackground();
+        DuplicateDetector.loadInBackground();
+        DocumentHttpServer.startIfConfigured();
     }
 }
\ No newline at end of file
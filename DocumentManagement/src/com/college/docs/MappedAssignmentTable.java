@@ -0,0 +1,267 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Assignments as a memory-mapped file of fixed-width records, one slot per document id, shared
+ * by every client process that opens the same file.
+ *
+ * Layout: a 64-byte header (magic, layout, record size, chunk count, version) followed by
+ * 128-byte records of [length:short][UTF-8 email]; length 0 means unassigned. The record for
+ * document n starts at byte 64 + 128n. The records are mapped in chunks of
+ * {@value #CHUNK_SLOTS} slots, each chunk only when a slot in it is first used, so any int id
+ * works and the file (sparse on most file systems) is never mapped as one 2 GB buffer.
+ *
+ * Writers take an exclusive {@link FileLock} on the header, make the version odd, write their
+ * records and make it even again. Readers never lock: they read a record between two reads of
+ * the version and retry if a write was in progress, so another process's writes are visible as
+ * soon as they land in the shared page cache, without re-reading the file. On network shares
+ * that do not keep mappings coherent between hosts, writes are still serialized by the lock.
+ *
+ * Keys are decimal document ids. The file is created on first use and filled from the old
+ * text journal, which is left untouched afterwards.
+ */
+public class MappedAssignmentTable implements KeyValueStore {
+
+    private static final int MAGIC = 0x444D5341; // "DMSA"
+    private static final int LAYOUT = 2;         // 1 counted slots instead of chunks at OFF_CAPACITY
+    private static final int HEADER = 64;
+    private static final int RECORD = 128;
+    private static final int MAX_EMAIL_BYTES = RECORD - 2;
+    private static final int CHUNK_SLOTS = 1 << 16;
+    private static final long CHUNK_BYTES = (long) CHUNK_SLOTS * RECORD;
+    private static final int OFF_LAYOUT = 4;
+    private static final int OFF_CAPACITY = 12;  // chunks in use by any process
+    private static final int OFF_VERSION = 16;
+    private static final int SPINS_BEFORE_RECOVERY = 100_000;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+    private MappedAssignmentTable(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+    }
+
+    /**
+     * Open (or create) the mapped file. A new file is initialised and seeded from importFrom,
+     * a "docId|email" journal, if that exists, all under the write lock, so no other process
+     * sees it half-filled.
+     */
+    public static MappedAssignmentTable open(Path file, Path importFrom) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = ch.lock(0, HEADER, false);
+            try {
+                boolean fresh = ch.size() < HEADER || readInt(ch, 0) != MAGIC;
+                if (fresh) ch.truncate(0);
+                else if (readInt(ch, 8) != RECORD) throw new IOException("Unsupported record size in " + file);
+                MappedAssignmentTable t = new MappedAssignmentTable(file, ch);
+                if (fresh) {
+                    t.header.putInt(0, MAGIC).putInt(OFF_LAYOUT, LAYOUT).putInt(8, RECORD).putInt(OFF_CAPACITY, 0);
+                    LONGS.setRelease(t.header, OFF_VERSION, 0L);
+                    if (importFrom != null && Files.exists(importFrom)) {
+                        Map<String, String> seed = new TextKeyValueStore(importFrom, TextKeyValueStore.Format.PIPE).loadAll();
+                        if (!seed.isEmpty()) {
+                            synchronized (t) {
+                                t.writeLocked(records(seed, file));
+                            }
+                        }
+                    }
+                } else if (t.header.getInt(OFF_LAYOUT) == 1) {
+                    int slots = t.header.getInt(OFF_CAPACITY);
+                    t.header.putInt(OFF_CAPACITY, (int) ((slots + (long) CHUNK_SLOTS - 1) / CHUNK_SLOTS));
+                    t.header.putInt(OFF_LAYOUT, LAYOUT);
+                } else if (t.header.getInt(OFF_LAYOUT) != LAYOUT) {
+                    throw new IOException("Unsupported layout in " + file);
+                }
+                return t;
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    private static int readInt(FileChannel ch, long pos) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4);
+        while (b.hasRemaining() && ch.read(b, pos + b.position()) > 0) {}
+        return b.hasRemaining() ? 0 : b.getInt(0);
+    }
+
+    // the chunk holding this slot, mapped on first use; null if no process has written that far
+    private MappedByteBuffer chunk(int index) {
+        MappedByteBuffer[] mapped = chunks;
+        if (index < mapped.length && mapped[index] != null) return mapped[index];
+        if (index >= header.getInt(OFF_CAPACITY)) return null;
+        try {
+            return map(index);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // maps one chunk, growing the file if needed
+    private synchronized MappedByteBuffer map(int index) throws IOException {
+        MappedByteBuffer[] mapped = chunks;
+        if (index < mapped.length && mapped[index] != null) return mapped[index];
+        if (index >= mapped.length) mapped = Arrays.copyOf(mapped, index + 1);
+        else mapped = mapped.clone();
+        mapped[index] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER + index * CHUNK_BYTES, CHUNK_BYTES);
+        chunks = mapped;
+        return mapped[index];
+    }
+
+    /** Assigned admin for a document, or null. Never blocks on writers. */
+    public String get(int docId) {
+        if (docId < 0) return null;
+        MappedByteBuffer m = chunk(docId / CHUNK_SLOTS);
+        if (m == null) return null;
+        int at = (docId % CHUNK_SLOTS) * RECORD;
+        byte[] buf = new byte[MAX_EMAIL_BYTES];
+        for (int spins = 0; ; spins++) {
+            long before = (long) LONGS.getAcquire(header, OFF_VERSION);
+            if ((before & 1) == 0) {
+                int len = m.getShort(at);
+                if (len > 0 && len <= MAX_EMAIL_BYTES) m.get(at + 2, buf, 0, len);
+                VarHandle.loadLoadFence();
+                if ((long) LONGS.getAcquire(header, OFF_VERSION) == before) {
+                    return len > 0 && len <= MAX_EMAIL_BYTES ? new String(buf, 0, len, StandardCharsets.UTF_8) : null;
+                }
+            }
+            if (spins % SPINS_BEFORE_RECOVERY == SPINS_BEFORE_RECOVERY - 1) recoverInterruptedWrite();
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        return get(parseId(key));
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (String k : keys) {
+            String v = get(parseId(k));
+            if (v != null) out.put(k, v);
+        }
+        return out;
+    }
+
+    @Override
+    public Map<String, String> loadAll() {
+        Map<String, String> out = new LinkedHashMap<>();
+        int count = header.getInt(OFF_CAPACITY);
+        for (int c = 0; c < count; c++) {
+            for (long id = (long) c * CHUNK_SLOTS, end = id + CHUNK_SLOTS; id < end && id <= Integer.MAX_VALUE; id++) {
+                String v = get((int) id);
+                if (v != null) out.put(String.valueOf(id), v);
+            }
+        }
+        return out;
+    }
+
+    /** Write every entry under the file lock as one version step; null or "" clears a slot. */
+    @Override
+    public synchronized void putAll(Map<String, String> entries) throws IOException {
+        if (entries.isEmpty()) return;
+        Map<Integer, byte[]> records = records(entries, file);
+        try (Diagnostics.Span span = Diagnostics.store("write", "mapped", file)) {
+            FileLock lock = channel.lock(0, HEADER, false);
+            try {
+                writeLocked(records);
+            } finally {
+                lock.release();
+            }
+            span.bytes((long) records.size() * RECORD);
+        }
+    }
+
+    private static Map<Integer, byte[]> records(Map<String, String> entries, Path file) throws IOException {
+        Map<Integer, byte[]> records = new HashMap<>(entries.size() * 2);
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            int id = parseId(e.getKey());
+            if (id < 0) throw new IllegalArgumentException("Not a document id: " + e.getKey());
+            byte[] email = e.getValue() == null ? new byte[0] : e.getValue().getBytes(StandardCharsets.UTF_8);
+            if (email.length > MAX_EMAIL_BYTES) throw new IOException("Email too long for " + file + ": " + e.getValue());
+            records.put(id, email);
+        }
+        return records;
+    }
+
+    // caller holds the file lock and the instance lock
+    private void writeLocked(Map<Integer, byte[]> records) throws IOException {
+        int needed = 0;
+        for (int id : records.keySet()) {
+            map(id / CHUNK_SLOTS); // only chunks that get a record are mapped; the file grows as they are
+            needed = Math.max(needed, id / CHUNK_SLOTS + 1);
+        }
+        MappedByteBuffer[] targets = chunks;
+        if (needed > header.getInt(OFF_CAPACITY)) header.putInt(OFF_CAPACITY, needed);
+        long version = (long) LONGS.getVolatile(header, OFF_VERSION);
+        if ((version & 1) != 0) version++; // a writer died mid-write; we hold the lock now
+        LONGS.setVolatile(header, OFF_VERSION, version + 1);
+        VarHandle.storeStoreFence();
+        for (Map.Entry<Integer, byte[]> r : records.entrySet()) {
+            MappedByteBuffer m = targets[r.getKey() / CHUNK_SLOTS];
+            int at = (r.getKey() % CHUNK_SLOTS) * RECORD;
+            m.putShort(at, (short) r.getValue().length);
+            m.put(at + 2, r.getValue());
+        }
+        LONGS.setRelease(header, OFF_VERSION, version + 2);
+    }
+
+    /** Bumped by every write from any process. */
+    @Override
+    public long version() {
+        return (long) LONGS.getAcquire(header, OFF_VERSION);
+    }
+
+    // the version has stayed odd: if the lock is free, its writer is gone, so close the write
+    private synchronized void recoverInterruptedWrite() {
+        try {
+            FileLock lock = channel.tryLock(0, HEADER, false);
+            if (lock == null) return;
+            long version = (long) LONGS.getVolatile(header, OFF_VERSION);
+            if ((version & 1) != 0) LONGS.setRelease(header, OFF_VERSION, version + 1);
+            lock.release();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int parseId(String key) {
+        try {
+            return Integer.parseInt(key.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
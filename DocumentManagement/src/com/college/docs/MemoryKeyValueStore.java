@@ -0,0 +1,43 @@
+package com.college.docs;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link KeyValueStore} held in memory only, for tests and benchmarks (-Ddms.store=memory).
+ */
+public class MemoryKeyValueStore implements KeyValueStore {
+
+    private final Map<String, String> entries = new LinkedHashMap<>();
+    private long version;
+
+    @Override
+    public synchronized Map<String, String> loadAll() {
+        return new LinkedHashMap<>(entries);
+    }
+
+    @Override
+    public synchronized Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (String k : keys) {
+            String v = entries.get(k);
+            if (v != null) out.put(k, v);
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void putAll(Map<String, String> batch) {
+        for (Map.Entry<String, String> e : batch.entrySet()) {
+            if (e.getValue() == null) entries.remove(e.getKey());
+            else entries.put(e.getKey(), e.getValue());
+        }
+        version++;
+    }
+
+    @Override
+    public synchronized long version() {
+        return version;
+    }
+}
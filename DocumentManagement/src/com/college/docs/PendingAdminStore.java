@@ -1,50 +1,109 @@
 package com.college.docs;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
+/**
+ * Pending admin registrations, keyed by email, persisted through a {@link KeyValueStore}
+ * (by default the resources/pending_admin_registrations.txt journal: "email,timestamp" adds a
+ * registration and "-email" clears it). Entries are held in an email -> timestamp map that is
+ * re-read when the backend's version changes (checked at most once per second, so
+ * registrations made by another client show up), or every few seconds for backends without a
+ * version. Clears are written as one batch.
+ */
 public class PendingAdminStore {
-    private static final Path FILE = Paths.get("resources", "pending_admin_registrations.txt");
+    private static final KeyValueStore BACKEND = KeyValueStore.open("pending_admins",
+            Paths.get("resources", "pending_admin_registrations.txt"), TextKeyValueStore.Format.COMMA);
 
-    private static void ensureExists() throws IOException {
-        Path parent = FILE.getParent();
-        if (parent != null && !Files.exists(parent)) Files.createDirectories(parent);
-        if (!Files.exists(FILE)) Files.createFile(FILE);
+    private static final long CHECK_INTERVAL_MS = 1000;
+    private static final long UNVERSIONED_RELOAD_MS = 15_000;
+
+    private static final Map<String, String> PENDING = new LinkedHashMap<>();
+    private static volatile List<String> snapshot; // "email,timestamp" lines in registration order
+    private static volatile long stamp = Long.MIN_VALUE;
+    private static volatile long lastCheck;
+    private static volatile long lastLoad;
+
+    private static void ensureLoaded() {
+        long now = System.currentTimeMillis();
+        if (snapshot != null && now - lastCheck < CHECK_INTERVAL_MS) return;
+        synchronized (PendingAdminStore.class) {
+            if (snapshot != null && now - lastCheck < CHECK_INTERVAL_MS) return;
+            lastCheck = now;
+            try {
+                long version = BACKEND.version();
+                boolean stale = version < 0 ? now - lastLoad >= UNVERSIONED_RELOAD_MS : version != stamp;
+                if (snapshot != null && !stale) return;
+                List<Map.Entry<String, String>> entries = new ArrayList<>(BACKEND.loadAll().entrySet());
+                // ISO-8601 timestamps sort chronologically; the JDBC backend returns key order
+                entries.sort(Map.Entry.comparingByValue());
+                PENDING.clear();
+                for (Map.Entry<String, String> e : entries) PENDING.put(e.getKey().trim().toLowerCase(), e.getValue());
+                stamp = version; // read before the data, so a write in between forces another load
+                lastLoad = now;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            publish();
+        }
+    }
+
+    // caller holds the class lock; our write is shown at once, and the stamp is left alone so the
+    // next check reloads any other client's changes too
+    private static void written() {
+        publish();
+        lastCheck = System.currentTimeMillis();
+    }
+
+    // caller holds the class lock
+    private static void publish() {
+        List<String> lines = new ArrayList<>(PENDING.size());
+        for (Map.Entry<String, String> e : PENDING.entrySet()) lines.add(e.getKey() + "," + e.getValue());
+        snapshot = List.copyOf(lines);
     }
 
     public static synchronized void addPending(String email) {
+        ensureLoaded();
+        String key = email.trim().toLowerCase();
+        String ts = Instant.now().toString();
         try {
-            ensureExists();
-            String line = email.trim().toLowerCase() + "," + Instant.now().toString() + System.lineSeparator();
-            Files.write(FILE, line.getBytes(), StandardOpenOption.APPEND);
+            BACKEND.put(key, ts);
+            PENDING.remove(key);
+            PENDING.put(key, ts);
+            written();
         } catch (IOException ignore) {}
     }
 
-    public static synchronized List<String> listPending() {
-        try {
-            ensureExists();
-            return Files.readAllLines(FILE).stream()
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            return new ArrayList<>();
-        }
+    /** Immutable "email,timestamp" lines for every pending registration. */
+    public static List<String> listPending() {
+        ensureLoaded();
+        return snapshot;
     }
 
-    public static synchronized void clearPendingFor(String email) {
+    public static void clearPendingFor(String email) {
+        clearPendingFor(List.of(email));
+    }
+
+    /** Clear several registrations with a single batched write. */
+    public static synchronized void clearPendingFor(Collection<String> emails) {
+        ensureLoaded();
+        Map<String, String> batch = new LinkedHashMap<>();
+        for (String email : emails) {
+            if (email == null) continue;
+            // cleared even if not in our copy: another client may have just added it
+            batch.put(email.trim().toLowerCase(), null);
+        }
+        if (batch.isEmpty()) return;
         try {
-            ensureExists();
-            List<String> lines = Files.readAllLines(FILE);
-            List<String> left = lines.stream().filter(l -> !l.toLowerCase().startsWith(email.trim().toLowerCase() + ",")).collect(Collectors.toList());
-            Files.write(FILE, left);
+            BACKEND.putAll(batch);
+            PENDING.keySet().removeAll(batch.keySet());
+            written();
         } catch (IOException ignore) {}
     }
 }
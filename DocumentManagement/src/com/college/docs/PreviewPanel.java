@@ -0,0 +1,69 @@
+package com.college.docs;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Paths;
+
+/**
+ * Side pane of the admin table showing the selected document's thumbnail and text snippet
+ * (see PreviewService). Only the latest selection is shown; slower earlier requests are dropped.
+ */
+public class PreviewPanel extends JPanel {
+
+    private final JLabel title = new JLabel(" ");
+    private final JLabel thumbnail = new JLabel();
+    private final JTextArea snippet = new JTextArea();
+    private int generation;
+
+    public PreviewPanel() {
+        super(new BorderLayout(0, 6));
+        setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
+        setBackground(Color.WHITE);
+        title.setFont(new Font("Arial", Font.BOLD, 16));
+        thumbnail.setHorizontalAlignment(SwingConstants.CENTER);
+        thumbnail.setPreferredSize(new Dimension(PreviewService.THUMB_WIDTH, PreviewService.THUMB_HEIGHT));
+        snippet.setEditable(false);
+        snippet.setLineWrap(true);
+        snippet.setWrapStyleWord(true);
+        snippet.setFont(new Font("Arial", Font.PLAIN, 14));
+        JScrollPane snippetScroll = new JScrollPane(snippet);
+        snippetScroll.setPreferredSize(new Dimension(PreviewService.THUMB_WIDTH, 160));
+        add(title, BorderLayout.NORTH);
+        add(thumbnail, BorderLayout.CENTER);
+        add(snippetScroll, BorderLayout.SOUTH);
+        clear();
+    }
+
+    /** Show nothing selected. */
+    public void clear() {
+        generation++;
+        title.setText("No document selected");
+        thumbnail.setIcon(null);
+        thumbnail.setText("");
+        snippet.setText("");
+    }
+
+    /** Show the preview of a document; renders it in the background if it was never rendered. */
+    public void showDocument(String filename, String filePath, String hash) {
+        int request = ++generation;
+        title.setText(filename == null ? "" : filename);
+        thumbnail.setIcon(null);
+        snippet.setText("");
+        if (hash == null || hash.isEmpty() || filePath == null) {
+            thumbnail.setText("No preview available");
+            return;
+        }
+        thumbnail.setText("Loading preview...");
+        PreviewService.preview(hash, Paths.get(filePath), filename).whenComplete((p, ex) -> SwingUtilities.invokeLater(() -> {
+            if (request != generation) return; // selection moved on
+            if (ex != null) {
+                thumbnail.setText("No preview available");
+                return;
+            }
+            thumbnail.setText("");
+            thumbnail.setIcon(new ImageIcon(p.thumbnail));
+            snippet.setText(p.snippet);
+            snippet.setCaretPosition(0);
+        }));
+    }
+}
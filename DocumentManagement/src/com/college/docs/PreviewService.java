@@ -0,0 +1,216 @@
+package com.college.docs;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders a first-page thumbnail and a short text snippet for each stored document and keeps
+ * them in resources/previews/ab/&lt;hash_value&gt;.png and .txt, so reviewers see a preview
+ * without launching an external app.
+ *
+ * Previews are rendered on a small worker pool right after upload; documents uploaded before
+ * this existed get theirs the first time they are selected. Images are scaled down; text,
+ * HTML, notebooks, .docx and PDFs are shown as their extracted text laid out on a page (the
+ * JDK has no PDF rasterizer, so PDF thumbnails show text rather than the rendered page).
+ */
+public class PreviewService {
+
+    public static final int THUMB_WIDTH = 320;
+    public static final int THUMB_HEIGHT = 414;
+    private static final int SNIPPET_CHARS = 1500;
+    private static final Path DIR = Paths.get("resources", "previews").toAbsolutePath();
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() / 2)), r -> {
+                Thread t = new Thread(r, "preview-worker-" + THREADS.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+    private static final Map<String, CompletableFuture<Void>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    /** A rendered preview. */
+    public static class Preview {
+        public final BufferedImage thumbnail;
+        public final String snippet;
+
+        Preview(BufferedImage thumbnail, String snippet) {
+            this.thumbnail = thumbnail;
+            this.snippet = snippet;
+        }
+    }
+
+    /** Queue rendering for a freshly stored document. Returns immediately. */
+    public static void submit(String hash, Path file, String filename) {
+        render(hash, file, filename);
+    }
+
+    /**
+     * The preview for a document: read from the disk cache, or rendered first when missing.
+     * The thumbnail goes through ImageAssets, so repeat views are served from memory.
+     */
+    public static CompletableFuture<Preview> preview(String hash, Path file, String filename) {
+        if (hash == null || hash.isEmpty()) {
+            return CompletableFuture.failedFuture(new IOException("Document has no fingerprint"));
+        }
+        Path thumb = thumbnailPath(hash);
+        CompletableFuture<Void> ready = Files.exists(snippetPath(hash)) ? CompletableFuture.completedFuture(null)
+                : render(hash, file, filename);
+        return ready.thenCompose(v -> ImageAssets.load(thumb.toString(), THUMB_WIDTH, THUMB_HEIGHT))
+                .thenApply(img -> new Preview(img, readSnippet(hash)));
+    }
+
+    static Path thumbnailPath(String hash) {
+        return DIR.resolve(hash.substring(0, 2)).resolve(hash + ".png");
+    }
+
+    static Path snippetPath(String hash) {
+        return DIR.resolve(hash.substring(0, 2)).resolve(hash + ".txt");
+    }
+
+    private static CompletableFuture<Void> render(String hash, Path file, String filename) {
+        if (hash == null || hash.length() < 2 || file == null) return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> f = IN_FLIGHT.computeIfAbsent(hash, h -> CompletableFuture.runAsync(() -> {
+            try {
+                if (Files.exists(snippetPath(h))) return; // rendered by an earlier run
+                renderNow(h, file, filename);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, WORKERS));
+        f.whenComplete((v, ex) -> {
+            IN_FLIGHT.remove(hash, f);
+            if (ex != null) System.err.println("Preview failed for " + filename + ": " + ex.getMessage());
+        });
+        return f;
+    }
+
+    private static void renderNow(String hash, Path file, String filename) throws IOException {
+        BufferedImage thumb = null;
+        String snippet;
+        if (isImage(filename)) {
+            BufferedImage img = ImageIO.read(file.toFile());
+            if (img != null) {
+                double s = Math.min(1.0, Math.min((double) THUMB_WIDTH / img.getWidth(), (double) THUMB_HEIGHT / img.getHeight()));
+                BufferedImage scaled = ImageAssets.scale(img, Math.max(1, (int) (img.getWidth() * s)), Math.max(1, (int) (img.getHeight() * s)));
+                thumb = centered(scaled);
+            }
+            snippet = img == null ? "" : img.getWidth() + " x " + img.getHeight() + " image";
+        } else {
+            String text = TextExtractor.isSupported(filename) ? TextExtractor.extract(file, filename) : "";
+            snippet = text.replaceAll("[ \\t\\x0B\\f\\r]+", " ").replaceAll("\\n\\s*\\n+", "\n").trim();
+            if (snippet.length() > SNIPPET_CHARS) snippet = snippet.substring(0, SNIPPET_CHARS) + "...";
+        }
+        if (thumb == null) thumb = textPage(filename, snippet);
+
+        Path png = thumbnailPath(hash);
+        Files.createDirectories(png.getParent());
+        Path tmp = Files.createTempFile(png.getParent(), hash, ".tmp");
+        try {
+            ImageIO.write(thumb, "png", tmp.toFile());
+            moveInto(tmp, png);
+            // the snippet is written last: its presence marks a complete preview
+            Files.write(tmp, snippet.getBytes(StandardCharsets.UTF_8));
+            moveInto(tmp, snippetPath(hash));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static BufferedImage centered(BufferedImage img) {
+        BufferedImage page = new BufferedImage(THUMB_WIDTH, THUMB_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = page.createGraphics();
+        g.setColor(new Color(245, 245, 245));
+        g.fillRect(0, 0, THUMB_WIDTH, THUMB_HEIGHT);
+        g.drawImage(img, (THUMB_WIDTH - img.getWidth()) / 2, (THUMB_HEIGHT - img.getHeight()) / 2, null);
+        g.dispose();
+        return page;
+    }
+
+    // a "first page": the document's text laid out on white, or its type when there is no text
+    private static BufferedImage textPage(String filename, String text) {
+        BufferedImage page = new BufferedImage(THUMB_WIDTH, THUMB_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = page.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, THUMB_WIDTH, THUMB_HEIGHT);
+        g.setColor(new Color(200, 200, 200));
+        g.drawRect(0, 0, THUMB_WIDTH - 1, THUMB_HEIGHT - 1);
+        int margin = 14;
+        if (text.isEmpty()) {
+            String ext = TextExtractor.extension(filename);
+            g.setFont(new Font("Arial", Font.BOLD, 40));
+            g.setColor(new Color(120, 120, 120));
+            String label = ext.isEmpty() ? "FILE" : ext.toUpperCase();
+            int w = g.getFontMetrics().stringWidth(label);
+            g.drawString(label, (THUMB_WIDTH - w) / 2, THUMB_HEIGHT / 2);
+        } else {
+            g.setFont(new Font("Serif", Font.PLAIN, 11));
+            g.setColor(new Color(40, 40, 40));
+            FontMetrics fm = g.getFontMetrics();
+            int y = margin + fm.getAscent();
+            int maxWidth = THUMB_WIDTH - margin * 2;
+            StringBuilder line = new StringBuilder();
+            outer:
+            for (String para : text.split("\n")) {
+                for (String word : para.split(" ")) {
+                    if (line.length() > 0 && fm.stringWidth(line + " " + word) > maxWidth) {
+                        g.drawString(line.toString(), margin, y);
+                        y += fm.getHeight();
+                        line.setLength(0);
+                        if (y > THUMB_HEIGHT - margin) break outer;
+                    }
+                    if (line.length() > 0) line.append(' ');
+                    line.append(word);
+                }
+                g.drawString(line.toString(), margin, y);
+                y += fm.getHeight();
+                line.setLength(0);
+                if (y > THUMB_HEIGHT - margin) break;
+            }
+        }
+        g.dispose();
+        return page;
+    }
+
+    private static String readSnippet(String hash) {
+        try {
+            return new String(Files.readAllBytes(snippetPath(hash)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static boolean isImage(String filename) {
+        switch (TextExtractor.extension(filename)) {
+            case "png": case "jpg": case "jpeg": case "gif": case "bmp":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void moveInto(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
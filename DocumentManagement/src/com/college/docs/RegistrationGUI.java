@@ -10,6 +10,7 @@ public class RegistrationGUI extends JFrame {
     private JPasswordField passwordField;
     private JComboBox<String> roleCombo;
     private JButton registerButton;
+    private final UiTasks tasks = new UiTasks(this);
 
     public RegistrationGUI() {
         setTitle("📂 Register - College Docs");
@@ -100,38 +101,45 @@ public class RegistrationGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Please enter email and password!");
             return;
         }
-        try {
-            Connection con = DBConnection.getConnection();
-            String checkSql = "SELECT * FROM users WHERE email=?";
-            PreparedStatement pst = con.prepareStatement(checkSql);
-            pst.setString(1, email);
-            ResultSet rs = pst.executeQuery();
-            if (rs.next()) {
+        String role = roleCombo.getSelectedItem() == null ? "USER" : String.valueOf(roleCombo.getSelectedItem());
+        registerButton.setEnabled(false);
+        tasks.run(() -> {
+            try (Connection con = DBConnection.getConnection()) {
+                String checkSql = "SELECT * FROM users WHERE email=?";
+                try (PreparedStatement pst = con.prepareStatement(checkSql)) {
+                    pst.setString(1, email);
+                    try (ResultSet rs = pst.executeQuery()) {
+                        if (rs.next()) return Boolean.FALSE;
+                    }
+                }
+                String insertSql = "INSERT INTO users (email, password, role) VALUES (?, ?, ?)";
+                try (PreparedStatement insertStmt = con.prepareStatement(insertSql)) {
+                    insertStmt.setString(1, email);
+                    insertStmt.setString(2, password);
+                    insertStmt.setString(3, role);
+                    insertStmt.executeUpdate();
+                }
+            }
+            UserDirectory.invalidate(); // admin lists must see the new account right away
+            // If an admin was registered, ensure they are not auto-verified: store pending request for super-admin review
+            if ("ADMIN".equalsIgnoreCase(role)) PendingAdminStore.addPending(email);
+            return Boolean.TRUE;
+        }, registered -> {
+            registerButton.setEnabled(true);
+            if (!registered) {
                 JOptionPane.showMessageDialog(this, "Email already registered!");
                 return;
             }
-            String role = roleCombo.getSelectedItem() == null ? "USER" : String.valueOf(roleCombo.getSelectedItem());
-            String insertSql = "INSERT INTO users (email, password, role) VALUES (?, ?, ?)";
-            PreparedStatement insertStmt = con.prepareStatement(insertSql);
-            insertStmt.setString(1, email);
-            insertStmt.setString(2, password);
-            insertStmt.setString(3, role);
-            insertStmt.executeUpdate();
-
-            // If an admin was registered, ensure they are not auto-verified and notify main admin via pending store
             if ("ADMIN".equalsIgnoreCase(role)) {
-                // Do not add to verified list. Store pending request for super-admin review.
-                PendingAdminStore.addPending(email);
                 JOptionPane.showMessageDialog(this, "Admin registration successful! The main admin (admin@example.com) will be asked to verify your account.");
-                dispose();
-                return;
+            } else {
+                JOptionPane.showMessageDialog(this, "Registration successful! Please login.");
             }
-
-            JOptionPane.showMessageDialog(this, "Registration successful! Please login.");
             dispose();
-        } catch (SQLException ex) {
+        }, ex -> {
+            registerButton.setEnabled(true);
             ex.printStackTrace();
             JOptionPane.showMessageDialog(this, "Database error!");
-        }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,583 @@
+package com.college.docs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-text index over the contents of uploaded documents, kept under resources/index.
+ *
+ * Documents are queued after upload and indexed on a single background thread, so uploads
+ * never wait for text extraction. Indexed documents are buffered in memory and flushed as an
+ * immutable segment file; the live segment list is kept in segments.lst, which is rewritten
+ * atomically so a crash never exposes a half-written or half-merged index. Segments are merged
+ * by tier: once {@value #MERGE_FACTOR} segments of about the same size exist they are merged
+ * into one of the next tier, so each document is rewritten a logarithmic number of times.
+ * Postings are stored as varint doc-id gaps and term frequencies, and results are ranked with
+ * BM25.
+ *
+ * Several clients may share the directory. Writing segments, merging and rewriting the
+ * manifest all happen under the manifest's file lock, after re-reading the manifest, so a
+ * process only deletes segment files that no process has listed or is writing.
+ */
+public class SearchIndex {
+
+    private static final Path DIR = Paths.get("resources", "index");
+    private static final JournalFile MANIFEST = new JournalFile(DIR.resolve("segments.lst"));
+    private static final int MAGIC = 0x444D5349; // "DMSI"
+    private static final int FLUSH_DOCS = 64;
+    private static final int MERGE_FACTOR = 8;
+    private static final int MIN_TERM = 2;
+    private static final int MAX_TERM = 32;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "the", "and", "for", "are", "but", "not", "you", "with", "this", "that", "from", "was",
+            "were", "has", "have", "had", "its", "of", "to", "in", "is", "it", "on", "or", "as",
+            "an", "be", "by", "at", "if", "we", "he", "she", "they", "them"));
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "search-indexer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private static final AtomicBoolean CATCH_UP_STARTED = new AtomicBoolean();
+    private static final AtomicLong MERGES = new AtomicLong();
+    private static final AtomicLong MERGED_DOCS = new AtomicLong();
+    private static volatile String lastError;
+
+    // ids that are in a segment or the flush buffer
+    private static final Set<Integer> INDEXED = ConcurrentHashMap.newKeySet();
+    private static volatile List<Segment> segments;
+
+    // worker-thread state: documents indexed since the last flush
+    private static final TreeMap<String, List<int[]>> buffer = new TreeMap<>();
+    private static final TreeMap<Integer, Integer> bufferLengths = new TreeMap<>();
+    private static int pendingTasks;
+
+    /** One search result. */
+    public static class Hit {
+        public final int docId;
+        public final double score;
+
+        Hit(int docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+    }
+
+    /** Queue a freshly stored document for indexing. Returns immediately. */
+    public static void submit(int docId, Path file, String filename) {
+        if (docId <= 0 || file == null) return;
+        synchronized (SearchIndex.class) {
+            pendingTasks++;
+        }
+        WORKER.execute(() -> {
+            try {
+                indexDocument(docId, file, filename);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                finishTask();
+            }
+        });
+    }
+
+    /** Once per run: queue every stored document the index does not know about yet. */
+    public static void catchUpInBackground() {
+        if (!CATCH_UP_STARTED.compareAndSet(false, true)) return;
+        WORKER.execute(() -> {
+            int lastId = 0;
+            while (true) {
+                List<Object[]> batch = new ArrayList<>();
+                try (Connection con = DBConnection.getConnection()) {
+                    if (con == null) throw new SQLException("No database connection");
+                    try (PreparedStatement pst = con.prepareStatement(
+                            "SELECT id, filename, file_path FROM documents WHERE id > ? ORDER BY id LIMIT 500")) {
+                        pst.setInt(1, lastId);
+                        try (ResultSet rs = pst.executeQuery()) {
+                            while (rs.next()) batch.add(new Object[]{rs.getInt("id"), rs.getString("filename"), rs.getString("file_path")});
+                        }
+                    }
+                } catch (SQLException e) {
+                    lastError = "catch-up failed: " + e.getMessage();
+                    CATCH_UP_STARTED.set(false); // the next call tries again
+                    return;
+                }
+                if (batch.isEmpty()) return;
+                for (Object[] row : batch) {
+                    lastId = (Integer) row[0];
+                    if (row[2] != null && !INDEXED.contains(lastId)) submit(lastId, Paths.get((String) row[2]), (String) row[1]);
+                }
+            }
+        });
+    }
+
+    /** Ranked search over all flushed segments; safe to call from any thread. */
+    public static List<Hit> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        List<Segment> segs = loaded();
+        if (terms.isEmpty() || segs.isEmpty()) return Collections.emptyList();
+
+        long docCount = 0, totalLength = 0;
+        for (Segment s : segs) {
+            docCount += s.docIds.length;
+            totalLength += s.totalLength;
+        }
+        if (docCount == 0) return Collections.emptyList();
+        double avgLength = Math.max(1.0, (double) totalLength / docCount);
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : new HashSet<>(terms)) {
+            int df = 0;
+            for (Segment s : segs) df += s.docFrequency(term);
+            if (df == 0) continue;
+            double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            for (Segment s : segs) {
+                byte[] postings = s.postings.get(term);
+                if (postings == null) continue;
+                int[] pos = {0};
+                int doc = 0;
+                int n = s.docFrequency(term);
+                for (int i = 0; i < n; i++) {
+                    doc += readVarint(postings, pos);
+                    int tf = readVarint(postings, pos);
+                    double norm = K1 * (1 - B + B * s.lengthOf(doc) / avgLength);
+                    scores.merge(doc, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>((a, b) -> Double.compare(a.score, b.score));
+        for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+            top.add(new Hit(e.getKey(), e.getValue()));
+            if (top.size() > limit) top.poll();
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort((a, b) -> Double.compare(b.score, a.score));
+        return hits;
+    }
+
+    /** Segment and merge figures for diagnostics; never touches the disk. */
+    public static String stats() {
+        List<Segment> segs = segments;
+        String error = lastError == null ? "" : "; last " + lastError;
+        if (segs == null) return "search index: not loaded" + error;
+        int docs = 0;
+        for (Segment s : segs) docs += s.docIds.length;
+        return String.format("search index: %d documents in %d segments; %d merges rewrote %d documents%s",
+                docs, segs.size(), MERGES.get(), MERGED_DOCS.get(), error);
+    }
+
+    /** Number of documents in flushed segments. */
+    public static int documentCount() {
+        int n = 0;
+        for (Segment s : loaded()) n += s.docIds.length;
+        return n;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        StringBuilder cur = new StringBuilder();
+        for (int i = 0, len = text.length(); i <= len; i++) {
+            char c = i < len ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (cur.length() < MAX_TERM) cur.append(c);
+            } else if (cur.length() > 0) {
+                String term = cur.toString().toLowerCase(Locale.ROOT);
+                if (term.length() >= MIN_TERM && !STOP_WORDS.contains(term)) out.add(term);
+                cur.setLength(0);
+            }
+        }
+        return out;
+    }
+
+    // ---- worker thread ----
+
+    private static void indexDocument(int docId, Path file, String filename) {
+        loaded();
+        if (INDEXED.contains(docId) || !Files.isRegularFile(file)) return;
+        String text;
+        try {
+            text = TextExtractor.isSupported(filename) ? TextExtractor.extract(file, filename) : "";
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not extract text from " + filename + ": " + e.getMessage());
+            text = "";
+        }
+        List<String> terms = tokenize(text);
+        Map<String, Integer> freq = new HashMap<>();
+        for (String t : terms) freq.merge(t, 1, Integer::sum);
+        // unsupported or empty documents are still recorded so they are not re-read on every start
+        for (Map.Entry<String, Integer> e : freq.entrySet()) {
+            buffer.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(new int[]{docId, e.getValue()});
+        }
+        bufferLengths.put(docId, terms.size());
+        INDEXED.add(docId);
+        if (bufferLengths.size() >= FLUSH_DOCS) flush();
+    }
+
+    private static void finishTask() {
+        boolean idle;
+        synchronized (SearchIndex.class) {
+            idle = --pendingTasks == 0;
+        }
+        if (idle && !bufferLengths.isEmpty()) flush();
+    }
+
+    private static void flush() {
+        try {
+            Files.createDirectories(DIR);
+            List<Segment> current = loaded(); // outside the file lock: loading takes it too
+            MANIFEST.locked(() -> {
+                List<Segment> next = syncLocked(current);
+                // another client may have indexed the same documents since we last looked
+                Set<Integer> elsewhere = new HashSet<>();
+                for (Segment seg : next) {
+                    for (Integer id : bufferLengths.keySet()) {
+                        if (Arrays.binarySearch(seg.docIds, id) >= 0) elsewhere.add(id);
+                    }
+                }
+                Map<String, byte[]> postings = new TreeMap<>();
+                Map<String, Integer> dfs = new HashMap<>();
+                for (Map.Entry<String, List<int[]>> e : buffer.entrySet()) {
+                    List<int[]> list = e.getValue();
+                    list.removeIf(p -> elsewhere.contains(p[0]));
+                    if (list.isEmpty()) continue;
+                    list.sort((a, b) -> Integer.compare(a[0], b[0]));
+                    postings.put(e.getKey(), encode(list));
+                    dfs.put(e.getKey(), list.size());
+                }
+                bufferLengths.keySet().removeAll(elsewhere);
+                int[] ids = new int[bufferLengths.size()];
+                int[] lengths = new int[ids.length];
+                int i = 0;
+                for (Map.Entry<Integer, Integer> e : bufferLengths.entrySet()) {
+                    ids[i] = e.getKey();
+                    lengths[i++] = e.getValue();
+                }
+                if (ids.length > 0) next.add(Segment.write(nextSegmentFile(next), ids, lengths, postings, dfs));
+                buffer.clear();
+                bufferLengths.clear();
+                publish(mergeTiers(next));
+                return null;
+            });
+            lastError = null;
+        } catch (IOException e) {
+            lastError = "flush failed: " + e.getMessage(); // the buffer is kept and retried on the next flush
+        }
+    }
+
+    // caller holds the manifest lock: adopt segments other clients published, drop those they merged away
+    private static List<Segment> syncLocked(List<Segment> current) throws IOException {
+        Map<String, Segment> known = new HashMap<>();
+        for (Segment seg : current) known.put(seg.file.getFileName().toString(), seg);
+        List<Segment> list = new ArrayList<>();
+        for (String name : MANIFEST.readLines()) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+            Segment seg = known.get(name);
+            if (seg == null) {
+                try {
+                    seg = Segment.read(DIR.resolve(name));
+                    for (int id : seg.docIds) INDEXED.add(id);
+                } catch (IOException e) {
+                    System.err.println("Skipping unreadable index segment " + name + ": " + e.getMessage());
+                    continue;
+                }
+            }
+            list.add(seg);
+        }
+        return list;
+    }
+
+    // merge MERGE_FACTOR segments of one tier at a time until no tier is full
+    private static List<Segment> mergeTiers(List<Segment> segs) throws IOException {
+        while (true) {
+            Map<Integer, List<Segment>> tiers = new TreeMap<>();
+            for (Segment seg : segs) tiers.computeIfAbsent(tier(seg.docIds.length), k -> new ArrayList<>()).add(seg);
+            List<Segment> group = null;
+            for (List<Segment> tier : tiers.values()) {
+                if (tier.size() >= MERGE_FACTOR) {
+                    tier.sort((a, b) -> Long.compare(a.generation, b.generation));
+                    group = tier.subList(0, MERGE_FACTOR);
+                    break;
+                }
+            }
+            if (group == null) return segs;
+            Segment merged = merge(group, segs);
+            List<Segment> next = new ArrayList<>(segs);
+            next.removeAll(group);
+            next.add(merged);
+            segs = next;
+        }
+    }
+
+    // tier 0 holds segments below FLUSH_DOCS * MERGE_FACTOR documents, each tier MERGE_FACTOR times more
+    private static int tier(int docs) {
+        int tier = 0;
+        for (long bound = (long) FLUSH_DOCS * MERGE_FACTOR; docs >= bound; bound *= MERGE_FACTOR) tier++;
+        return tier;
+    }
+
+    // doc ids may interleave when catch-up and uploads overlap; a document indexed by two
+    // clients is taken from the first segment that has it
+    private static Segment merge(List<Segment> group, List<Segment> all) throws IOException {
+        TreeMap<String, List<int[]>> terms = new TreeMap<>();
+        TreeMap<Integer, Integer> lengths = new TreeMap<>();
+        Map<Integer, Segment> owner = new HashMap<>();
+        for (Segment seg : group) {
+            for (int i = 0; i < seg.docIds.length; i++) {
+                if (owner.putIfAbsent(seg.docIds[i], seg) == null) lengths.put(seg.docIds[i], seg.lengths[i]);
+            }
+            for (Map.Entry<String, byte[]> e : seg.postings.entrySet()) {
+                List<int[]> list = terms.computeIfAbsent(e.getKey(), k -> new ArrayList<>());
+                int[] pos = {0};
+                int doc = 0;
+                for (int i = 0, n = seg.docFrequency(e.getKey()); i < n; i++) {
+                    doc += readVarint(e.getValue(), pos);
+                    int tf = readVarint(e.getValue(), pos);
+                    if (owner.get(doc) == seg) list.add(new int[]{doc, tf});
+                }
+            }
+        }
+        Map<String, byte[]> postings = new TreeMap<>();
+        Map<String, Integer> dfs = new HashMap<>();
+        for (Map.Entry<String, List<int[]>> e : terms.entrySet()) {
+            List<int[]> list = e.getValue();
+            list.sort((a, b) -> Integer.compare(a[0], b[0]));
+            postings.put(e.getKey(), encode(list));
+            dfs.put(e.getKey(), list.size());
+        }
+        int[] ids = new int[lengths.size()];
+        int[] lens = new int[ids.length];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> e : lengths.entrySet()) {
+            ids[i] = e.getKey();
+            lens[i++] = e.getValue();
+        }
+        MERGES.incrementAndGet();
+        MERGED_DOCS.addAndGet(ids.length);
+        return Segment.write(nextSegmentFile(all), ids, lens, postings, dfs);
+    }
+
+    // caller holds the manifest lock
+    private static void publish(List<Segment> next) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (Segment s : next) names.add(s.file.getFileName().toString());
+        MANIFEST.rewrite(names);
+        segments = Collections.unmodifiableList(next);
+        deleteUnlisted(new HashSet<>(names));
+    }
+
+    // segments replaced by a merge, and leftovers from an interrupted flush or merge; caller
+    // holds the manifest lock, so no other client is writing a segment right now
+    private static void deleteUnlisted(Set<String> live) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIR, "seg-*.idx*")) {
+            for (Path f : files) {
+                if (!live.contains(f.getFileName().toString())) Files.deleteIfExists(f);
+            }
+        }
+    }
+
+    // caller holds the manifest lock; files from other clients count too
+    private static Path nextSegmentFile(List<Segment> segs) throws IOException {
+        long gen = 0;
+        for (Segment s : segs) gen = Math.max(gen, s.generation);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIR, "seg-*.idx*")) {
+            for (Path f : files) gen = Math.max(gen, Segment.generationOf(f));
+        }
+        return DIR.resolve(String.format("seg-%08d.idx", gen + 1));
+    }
+
+    private static List<Segment> loaded() {
+        List<Segment> s = segments;
+        if (s != null) return s;
+        synchronized (SearchIndex.class) {
+            if (segments == null) segments = load();
+            return segments;
+        }
+    }
+
+    private static List<Segment> load() {
+        List<Segment> list = new ArrayList<>();
+        try {
+            Files.createDirectories(DIR);
+            MANIFEST.ensureExists();
+            MANIFEST.locked(() -> {
+                Set<String> live = new HashSet<>();
+                for (String name : MANIFEST.readLines()) {
+                    name = name.trim();
+                    if (name.isEmpty()) continue;
+                    try {
+                        Segment seg = Segment.read(DIR.resolve(name));
+                        list.add(seg);
+                        live.add(name);
+                        for (int id : seg.docIds) INDEXED.add(id);
+                    } catch (IOException e) {
+                        System.err.println("Skipping unreadable index segment " + name + ": " + e.getMessage());
+                    }
+                }
+                deleteUnlisted(live);
+                return null;
+            });
+        } catch (IOException e) {
+            lastError = "load failed: " + e.getMessage();
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    // ---- postings encoding ----
+
+    private static byte[] encode(List<int[]> postings) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(postings.size() * 2);
+        int prev = 0;
+        for (int[] p : postings) {
+            writeVarint(out, p[0] - prev);
+            writeVarint(out, p[1]);
+            prev = p[0];
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarint(byte[] buf, int[] pos) {
+        int v = 0, shift = 0;
+        while (true) {
+            byte b = buf[pos[0]++];
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+            shift += 7;
+        }
+    }
+
+    /** Immutable on-disk segment, held in memory with its postings still compressed. */
+    private static class Segment {
+        final Path file;
+        final long generation;
+        final int[] docIds;      // sorted
+        final int[] lengths;     // terms per document, parallel to docIds
+        final long totalLength;
+        final Map<String, byte[]> postings;
+        final Map<String, Integer> docFrequencies;
+
+        Segment(Path file, int[] docIds, int[] lengths, Map<String, byte[]> postings, Map<String, Integer> dfs) {
+            this.file = file;
+            this.generation = generationOf(file);
+            this.docIds = docIds;
+            this.lengths = lengths;
+            long total = 0;
+            for (int l : lengths) total += l;
+            this.totalLength = total;
+            this.postings = postings;
+            this.docFrequencies = dfs;
+        }
+
+        // "seg-00000012.idx" (or a leftover ".idx.tmp") -> 12
+        static long generationOf(Path file) {
+            String name = file.getFileName().toString();
+            try {
+                return Long.parseLong(name.substring(4, name.indexOf('.')));
+            } catch (RuntimeException e) {
+                return 0;
+            }
+        }
+
+        int docFrequency(String term) {
+            Integer df = docFrequencies.get(term);
+            return df == null ? 0 : df;
+        }
+
+        int lengthOf(int docId) {
+            int i = Arrays.binarySearch(docIds, docId);
+            return i < 0 ? 0 : lengths[i];
+        }
+
+        static Segment write(Path file, int[] ids, int[] lengths, Map<String, byte[]> postings,
+                             Map<String, Integer> dfs) throws IOException {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    out.writeInt(ids[i]);
+                    out.writeInt(lengths[i]);
+                }
+                out.writeInt(postings.size());
+                for (Map.Entry<String, byte[]> e : postings.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeInt(dfs.get(e.getKey()));
+                    out.writeInt(e.getValue().length);
+                    out.write(e.getValue());
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new Segment(file, ids, lengths, postings, dfs);
+        }
+
+        static Segment read(Path file) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() != MAGIC) throw new IOException("not an index segment");
+                int docs = in.readInt();
+                int[] ids = new int[docs];
+                int[] lengths = new int[docs];
+                for (int i = 0; i < docs; i++) {
+                    ids[i] = in.readInt();
+                    lengths[i] = in.readInt();
+                }
+                int terms = in.readInt();
+                Map<String, byte[]> postings = new HashMap<>(terms * 2);
+                Map<String, Integer> dfs = new HashMap<>(terms * 2);
+                for (int i = 0; i < terms; i++) {
+                    String term = in.readUTF();
+                    dfs.put(term, in.readInt());
+                    byte[] data = new byte[in.readInt()];
+                    in.readFully(data);
+                    postings.put(term, data);
+                }
+                return new Segment(file, ids, lengths, postings, dfs);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.college.docs;
+
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how long the client takes to show its first window and, after login, the
+ * dashboard. Times are printed and appended to resources/startup_metrics.csv as
+ * "iso-time,first-frame-ms,login-to-dashboard-ms,dashboard-ms" so cold-start changes
+ * (e.g. running with the AppCDS archive) can be compared over time.
+ */
+public class StartupMetrics {
+
+    private static final JournalFile LOG = new JournalFile(Paths.get("resources", "startup_metrics.csv"));
+    private static final AtomicBoolean FIRST_FRAME = new AtomicBoolean();
+    private static final AtomicBoolean DASHBOARD = new AtomicBoolean();
+
+    // the JVM start is the real zero; fall back to class load time when the OS does not report it
+    private static final long JVM_START_MS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli).orElse(System.currentTimeMillis());
+    private static volatile long firstFrameMs = -1;
+    private static volatile long loginClickedMs = -1;
+
+    /** Record the first window's windowOpened. */
+    public static void trackFirstFrame(Window window) {
+        onOpened(window, () -> {
+            if (!FIRST_FRAME.compareAndSet(false, true)) return;
+            firstFrameMs = sinceStart();
+            System.out.println("[startup] first frame after " + firstFrameMs + " ms");
+        });
+    }
+
+    /** The user pressed Login. */
+    public static void loginRequested() {
+        loginClickedMs = System.currentTimeMillis();
+    }
+
+    /** Record the first dashboard's windowOpened and write the metrics line. */
+    public static void trackDashboard(Window dashboard) {
+        onOpened(dashboard, () -> {
+            if (!DASHBOARD.compareAndSet(false, true)) return;
+            long total = sinceStart();
+            long afterLogin = loginClickedMs < 0 ? -1 : System.currentTimeMillis() - loginClickedMs;
+            System.out.println("[startup] dashboard after " + total + " ms (" + afterLogin + " ms after login)");
+            String line = Instant.now() + "," + firstFrameMs + "," + afterLogin + "," + total;
+            JournalFile.runInBackground(() -> {
+                try {
+                    LOG.append(line);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        });
+    }
+
+    private static long sinceStart() {
+        return System.currentTimeMillis() - JVM_START_MS;
+    }
+
+    private static void onOpened(Window window, Runnable action) {
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                window.removeWindowListener(this);
+                action.run();
+            }
+        });
+    }
+}
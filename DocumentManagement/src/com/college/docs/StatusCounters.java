@@ -0,0 +1,267 @@
+package com.college.docs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Document counts per status, overall, per uploader and per assigned admin.
+ *
+ * Counts are loaded with grouped queries once and then kept current from the uploads and
+ * status changes made in this process. A slow background reconcile re-reads them from the
+ * database to absorb changes made by other clients and any drift; changes recorded while its
+ * query runs are replayed onto the result, so none are lost. A transition is counted once per
+ * process even when several views report it (say the window that made it and another window's
+ * delta refresh). Reads never hit the database after the first load.
+ */
+public class StatusCounters {
+
+    private static final long RECONCILE_MINUTES = 10;
+    private static final Object LOCK = new Object();
+
+    private static volatile boolean loaded;
+    private static Snapshot state = new Snapshot();
+    private static List<Consumer<Snapshot>> duringQuery; // changes recorded while a reconcile query runs
+    private static final Map<Integer, Integer> moved = new HashMap<>(); // docId -> slot this process counted it into
+    private static final List<Runnable> LISTENERS = new CopyOnWriteArrayList<>();
+    private static ScheduledExecutorService reconciler;
+
+    /** Immutable pending/approved/rejected triple. */
+    public static final class Counts {
+        public final int pending;
+        public final int approved;
+        public final int rejected;
+
+        Counts(int[] c) {
+            this.pending = c == null ? 0 : c[0];
+            this.approved = c == null ? 0 : c[1];
+            this.rejected = c == null ? 0 : c[2];
+        }
+    }
+
+    /** Overall counts. The first call loads from the database, so make it off the EDT. */
+    public static Counts totals() throws SQLException {
+        synchronized (LOCK) {
+            ensureLoaded();
+            return new Counts(state.totals);
+        }
+    }
+
+    public static Counts forUser(String email) throws SQLException {
+        synchronized (LOCK) {
+            ensureLoaded();
+            return new Counts(state.byUser.get(key(email)));
+        }
+    }
+
+    public static Counts forAdmin(String email) throws SQLException {
+        synchronized (LOCK) {
+            ensureLoaded();
+            return new Counts(state.byAdmin.get(key(email)));
+        }
+    }
+
+    /** Called (on any thread) whenever counts change. */
+    public static void addListener(Runnable listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Runnable listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /** A new PENDING document was inserted. */
+    public static void recordUpload(String userEmail) {
+        if (!loaded) return; // never wait for the first load; it will include this change
+        synchronized (LOCK) {
+            if (!loaded) return;
+            change(s -> {
+                s.totals[0]++;
+                bucket(s.byUser, userEmail)[0]++;
+            });
+        }
+        fire();
+    }
+
+    /** A document moved from one status to another; a repeat report of the same move is ignored. */
+    public static void recordTransition(int docId, String userEmail, String from, String to) {
+        int a = slot(from), b = slot(to);
+        if (a == b || !loaded) return;
+        String admin = AssignmentStore.getAssignedAdmin(docId);
+        synchronized (LOCK) {
+            if (!loaded) return;
+            Integer counted = moved.put(docId, b);
+            if (counted != null && counted == b) return;
+            change(s -> {
+                move(s.totals, a, b);
+                move(bucket(s.byUser, userEmail), a, b);
+                if (admin != null && !admin.isEmpty()) {
+                    move(bucket(s.byAdmin, admin), a, b);
+                    if (b >= 0) s.assignedStatus.put(docId, b);
+                }
+            });
+        }
+        fire();
+    }
+
+    /** A document was (re)assigned; previousAdmin may be empty. */
+    public static void recordAssignment(int docId, String previousAdmin, String newAdmin, String status) {
+        if (!loaded) return;
+        synchronized (LOCK) {
+            if (!loaded) return;
+            change(st -> {
+                Integer current = st.assignedStatus.get(docId);
+                int s = current != null ? current : slot(status);
+                if (s < 0) return;
+                if (previousAdmin != null && !previousAdmin.isEmpty()) bucket(st.byAdmin, previousAdmin)[s]--;
+                if (newAdmin != null && !newAdmin.isEmpty()) {
+                    bucket(st.byAdmin, newAdmin)[s]++;
+                    st.assignedStatus.put(docId, s);
+                } else {
+                    st.assignedStatus.remove(docId);
+                }
+            });
+        }
+        fire();
+    }
+
+    /** Re-read every count from the database now, off the calling thread. */
+    public static void reconcileInBackground() {
+        schedule().execute(StatusCounters::reconcile);
+    }
+
+    // caller holds LOCK
+    private static void change(Consumer<Snapshot> c) {
+        c.accept(state);
+        if (duringQuery != null) duringQuery.add(c);
+    }
+
+    // caller holds LOCK
+    private static void ensureLoaded() throws SQLException {
+        if (loaded) return;
+        state = query();
+        loaded = true;
+        schedule();
+    }
+
+    private static void reconcile() {
+        synchronized (LOCK) {
+            duringQuery = new ArrayList<>();
+        }
+        try {
+            Snapshot s = query();
+            synchronized (LOCK) {
+                for (Consumer<Snapshot> c : duringQuery) c.accept(s);
+                state = s;
+                moved.clear(); // the snapshot is the new baseline
+                loaded = true;
+            }
+            fire();
+        } catch (SQLException | RuntimeException e) {
+            e.printStackTrace(); // keep serving the last known counts
+        } finally {
+            synchronized (LOCK) {
+                duringQuery = null;
+            }
+        }
+    }
+
+    private static ScheduledExecutorService schedule() {
+        synchronized (LOCK) {
+            if (reconciler == null) {
+                reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "status-counters");
+                    t.setDaemon(true);
+                    return t;
+                });
+                reconciler.scheduleWithFixedDelay(StatusCounters::reconcile,
+                        RECONCILE_MINUTES, RECONCILE_MINUTES, TimeUnit.MINUTES);
+            }
+            return reconciler;
+        }
+    }
+
+    private static final class Snapshot {
+        final int[] totals = new int[3];
+        final Map<String, int[]> byUser = new HashMap<>();
+        final Map<String, int[]> byAdmin = new HashMap<>();
+        final Map<Integer, Integer> assignedStatus = new HashMap<>();
+    }
+
+    private static Snapshot query() throws SQLException {
+        Snapshot s = new Snapshot();
+        Map<Integer, String> assignments = new HashMap<>(AssignmentStore.loadAll());
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement(
+                    "SELECT user_email, status, COUNT(*) FROM documents GROUP BY user_email, status");
+                 ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    int slot = slot(rs.getString(2));
+                    if (slot < 0) continue;
+                    int n = rs.getInt(3);
+                    s.totals[slot] += n;
+                    bucket(s.byUser, rs.getString(1))[slot] += n;
+                }
+            }
+            // only assigned documents matter per admin; fetch their statuses by id
+            List<Integer> ids = new ArrayList<>();
+            for (Map.Entry<Integer, String> e : assignments.entrySet()) {
+                if (e.getValue() != null && !e.getValue().isEmpty()) ids.add(e.getKey());
+            }
+            for (int from = 0; from < ids.size(); from += 500) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + 500));
+                StringBuilder in = new StringBuilder();
+                for (int i = 0; i < chunk.size(); i++) in.append(i == 0 ? "?" : ",?");
+                try (PreparedStatement pst = con.prepareStatement("SELECT id, status FROM documents WHERE id IN (" + in + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) pst.setInt(i + 1, chunk.get(i));
+                    try (ResultSet rs = pst.executeQuery()) {
+                        while (rs.next()) {
+                            int slot = slot(rs.getString(2));
+                            if (slot < 0) continue;
+                            int id = rs.getInt(1);
+                            bucket(s.byAdmin, assignments.get(id))[slot]++;
+                            s.assignedStatus.put(id, slot);
+                        }
+                    }
+                }
+            }
+        }
+        return s;
+    }
+
+    private static void move(int[] counts, int from, int to) {
+        if (from >= 0) counts[from]--;
+        if (to >= 0) counts[to]++;
+    }
+
+    private static int[] bucket(Map<String, int[]> map, String email) {
+        return map.computeIfAbsent(key(email), k -> new int[3]);
+    }
+
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int slot(String status) {
+        if ("PENDING".equalsIgnoreCase(status)) return 0;
+        if ("APPROVED".equalsIgnoreCase(status)) return 1;
+        if ("REJECTED".equalsIgnoreCase(status)) return 2;
+        return -1;
+    }
+
+    private static void fire() {
+        for (Runnable r : LISTENERS) r.run();
+    }
+}
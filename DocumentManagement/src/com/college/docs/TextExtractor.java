@@ -0,0 +1,167 @@
+package com.college.docs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Best-effort plain-text extraction for the document types users upload.
+ *
+ * Plain text, HTML, Jupyter notebooks and .docx are handled with JDK classes only. PDFs are
+ * scanned for (optionally Flate-compressed) content streams and the string operands of text
+ * operators; scanned or exotically encoded PDFs simply yield little or no text. The type is
+ * taken from the original filename because stored blobs have no extension. Every read is
+ * capped (text files and PDFs by size on disk, .docx by the inflated size of its document
+ * part), so a huge or maliciously compressed upload cannot exhaust the indexer's heap; text
+ * past a cap is simply not indexed.
+ */
+public class TextExtractor {
+
+    private static final int MAX_TEXT_FILE = 16 << 20;
+    private static final int MAX_PDF_FILE = 64 << 20;
+    private static final int MAX_DOCX_XML = 32 << 20;
+    private static final int MAX_CHARS = 4 << 20;
+
+    private static final Pattern TAGS = Pattern.compile("(?is)<(script|style)[^>]*>.*?</\\1>|<[^>]+>");
+    private static final Pattern JSON_STRING = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern PDF_STREAM = Pattern.compile("(?s)stream\\r?\\n(.*?)\\r?\\n?endstream");
+    private static final Pattern PDF_TEXT = Pattern.compile("\\((?:[^()\\\\]|\\\\.)*\\)");
+
+    public static boolean isSupported(String filename) {
+        String ext = extension(filename);
+        switch (ext) {
+            case "txt": case "md": case "csv": case "log": case "json": case "xml": case "java": case "py":
+            case "html": case "htm": case "ipynb": case "docx": case "pdf":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Extracted text, or an empty string when the type is not supported. */
+    public static String extract(Path file, String filename) throws IOException {
+        String ext = extension(filename);
+        switch (ext) {
+            case "txt": case "md": case "csv": case "log": case "json": case "xml": case "java": case "py":
+                return readText(file);
+            case "html": case "htm":
+                return stripHtml(readText(file));
+            case "ipynb":
+                return notebookText(readText(file));
+            case "docx":
+                return docxText(file);
+            case "pdf":
+                return pdfText(file);
+            default:
+                return "";
+        }
+    }
+
+    static String extension(String filename) {
+        if (filename == null) return "";
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String readText(Path file) throws IOException {
+        return new String(readPrefix(file, MAX_TEXT_FILE), StandardCharsets.UTF_8);
+    }
+
+    // at most max bytes from the start of the file
+    private static byte[] readPrefix(Path file, int max) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.readNBytes(max);
+        }
+    }
+
+    static String stripHtml(String html) {
+        String text = TAGS.matcher(html).replaceAll(" ");
+        return text.replace("&nbsp;", " ").replace("&amp;", "&").replace("&lt;", "<")
+                .replace("&gt;", ">").replace("&quot;", "\"").replace("&#39;", "'");
+    }
+
+    // notebooks are JSON; every string literal (cell sources, outputs) is fair game for search
+    private static String notebookText(String json) {
+        StringBuilder sb = new StringBuilder();
+        Matcher m = JSON_STRING.matcher(json);
+        while (m.find() && sb.length() < MAX_CHARS) {
+            sb.append(m.group(1).replace("\\n", "\n").replace("\\t", " ").replace("\\\"", "\"")).append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static String docxText(Path file) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            ZipEntry entry = zip.getEntry("word/document.xml");
+            if (entry == null) return "";
+            try (InputStream in = zip.getInputStream(entry)) {
+                String xml = new String(in.readNBytes(MAX_DOCX_XML), StandardCharsets.UTF_8);
+                return stripHtml(xml.replace("</w:p>", "\n"));
+            }
+        }
+    }
+
+    private static String pdfText(Path file) throws IOException {
+        String raw = new String(readPrefix(file, MAX_PDF_FILE), StandardCharsets.ISO_8859_1);
+        StringBuilder sb = new StringBuilder();
+        Matcher streams = PDF_STREAM.matcher(raw);
+        while (streams.find() && sb.length() < MAX_CHARS) {
+            String content = inflate(streams.group(1));
+            if (content == null) continue;
+            Matcher strings = PDF_TEXT.matcher(content);
+            while (strings.find() && sb.length() < MAX_CHARS) {
+                String s = strings.group();
+                sb.append(unescapePdf(s.substring(1, s.length() - 1))).append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String inflate(String data) {
+        byte[] in = data.getBytes(StandardCharsets.ISO_8859_1);
+        Inflater inflater = new Inflater();
+        inflater.setInput(in);
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(MAX_CHARS, in.length * 4L));
+        byte[] buf = new byte[8192];
+        try {
+            while (!inflater.finished() && out.size() < MAX_CHARS) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                out.write(buf, 0, n);
+            }
+            if (out.size() == 0) return data; // not compressed
+            return out.toString(StandardCharsets.ISO_8859_1);
+        } catch (java.util.zip.DataFormatException e) {
+            return data.contains("Tj") || data.contains("TJ") ? data : null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String unescapePdf(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                switch (n) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': case 't': case 'b': case 'f': sb.append(' '); break;
+                    default: sb.append(n);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
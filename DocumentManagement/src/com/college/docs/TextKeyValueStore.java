@@ -0,0 +1,217 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link KeyValueStore} on an append-only text journal (see {@link JournalFile}).
+ *
+ * Each put appends one record per changed entry; replaying the file in order gives the current
+ * state. Once the file holds mostly superseded records it is compacted in the background; the
+ * compaction re-reads the file under the journal's file lock, so records other processes
+ * appended since our last read are kept. The file is re-read by {@link #loadAll()}, so hand
+ * edits and other processes' writes are seen. A put first reads what other processes appended
+ * since (or the whole file, if one of them compacted it), under the journal's lock, so it
+ * never skips a write because of a stale in-memory copy. {@link #version()} is based on the
+ * journal's generation counter, which every append and rewrite bumps.
+ */
+public class TextKeyValueStore implements KeyValueStore {
+
+    // compact when the log has this many more records than live entries
+    private static final int COMPACT_SLACK = 256;
+
+    /** How entries are written as lines, so each store keeps its existing file format. */
+    public static final class Format {
+        /** "key|value"; "key|" deletes. */
+        public static final Format PIPE = new Format("|", false);
+        /** "key,value"; "-key" deletes. */
+        public static final Format COMMA = new Format(",", true);
+        /** "key" with an empty value; "-key" deletes. */
+        public static final Format KEYS_ONLY = new Format(null, true);
+
+        private final String separator;
+        private final boolean dashDeletes;
+
+        private Format(String separator, boolean dashDeletes) {
+            this.separator = separator;
+            this.dashDeletes = dashDeletes;
+        }
+
+        void apply(String raw, Map<String, String> into) {
+            String line = raw.trim();
+            if (line.isEmpty()) return;
+            if (dashDeletes && line.startsWith("-")) {
+                into.remove(line.substring(1).trim());
+                return;
+            }
+            if (separator == null) {
+                into.put(line, "");
+                return;
+            }
+            int at = line.indexOf(separator);
+            String key = (at < 0 ? line : line.substring(0, at)).trim();
+            String value = at < 0 ? "" : line.substring(at + separator.length()).trim();
+            if (!dashDeletes && value.isEmpty()) into.remove(key);
+            else into.put(key, value);
+        }
+
+        String record(String key, String value) {
+            if (value == null) return dashDeletes ? "-" + key : key + separator;
+            return separator == null ? key : key + separator + value;
+        }
+    }
+
+    private final JournalFile journal;
+    private final Format format;
+    private final Map<String, String> live = new LinkedHashMap<>();
+    private boolean loaded;
+    private int records;
+    private long readTo;       // bytes of the journal applied to live
+    private long rewritesSeen; // journal rewrites as of that read
+    private boolean compactionQueued;
+
+    public TextKeyValueStore(Path file, Format format) {
+        this.journal = new JournalFile(file);
+        this.format = format;
+    }
+
+    @Override
+    public Map<String, String> loadAll() throws IOException {
+        return journal.locked(() -> {
+            synchronized (this) {
+                reload();
+                maybeCompact();
+                return new LinkedHashMap<>(live);
+            }
+        });
+    }
+
+    // caller holds the journal lock, then this
+    private void reload() throws IOException {
+        live.clear();
+        records = 0;
+        rewritesSeen = journal.rewrites();
+        for (String line : journal.readLines()) {
+            if (line.trim().isEmpty()) continue;
+            format.apply(line, live);
+            records++;
+        }
+        readTo = journal.size();
+        loaded = true;
+    }
+
+    // caller holds the journal lock, then this: apply what other processes appended since the last read
+    private void catchUp() throws IOException {
+        if (!loaded || journal.rewrites() != rewritesSeen || journal.size() < readTo) {
+            reload();
+            return;
+        }
+        byte[] tail = journal.readFrom(readTo);
+        for (String line : new String(tail, StandardCharsets.UTF_8).split("\\R")) {
+            if (line.trim().isEmpty()) continue;
+            format.apply(line, live);
+            records++;
+        }
+        readTo += tail.length;
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) throws IOException {
+        boolean ready;
+        synchronized (this) {
+            ready = loaded;
+        }
+        if (!ready) loadAll();
+        return lookup(keys);
+    }
+
+    private synchronized Map<String, String> lookup(Collection<String> keys) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (String k : keys) {
+            String v = live.get(k);
+            if (v != null) out.put(k, v);
+        }
+        return out;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws IOException {
+        // always the journal lock first, then this: a caller may already hold the journal lock
+        journal.locked(() -> {
+            synchronized (this) {
+                write(entries);
+            }
+            return null;
+        });
+    }
+
+    // caller holds the journal lock, then this
+    private void write(Map<String, String> entries) throws IOException {
+        catchUp();
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            String current = live.get(e.getKey());
+            if (e.getValue() == null ? current == null : e.getValue().equals(current)) continue; // nothing to record
+            lines.add(format.record(e.getKey(), e.getValue()));
+        }
+        if (lines.isEmpty()) return;
+        journal.append(lines);
+        readTo = journal.size();
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            if (e.getValue() == null) live.remove(e.getKey());
+            else live.put(e.getKey(), e.getValue());
+        }
+        records += lines.size();
+        maybeCompact();
+    }
+
+    /** Changes with every append or rewrite by any process, and with hand edits that change the file. */
+    @Override
+    public long version() throws IOException {
+        journal.ensureExists();
+        BasicFileAttributes attrs = Files.readAttributes(journal.path(), BasicFileAttributes.class);
+        return (journal.generation() * 31 + attrs.lastModifiedTime().toMillis()) * 31 + attrs.size();
+    }
+
+    // caller holds this
+    private void maybeCompact() {
+        if (compactionQueued || records <= live.size() * 2 + COMPACT_SLACK) return;
+        compactionQueued = true;
+        JournalFile.runInBackground(this::compact);
+    }
+
+    private void compact() {
+        Map<String, String> current = new LinkedHashMap<>();
+        try {
+            journal.locked(() -> {
+                synchronized (this) {
+                    compactionQueued = false;
+                    List<String> written = journal.update(lines -> {
+                        current.clear();
+                        for (String line : lines) format.apply(line, current);
+                        List<String> out = new ArrayList<>(current.size());
+                        for (Map.Entry<String, String> e : current.entrySet()) out.add(format.record(e.getKey(), e.getValue()));
+                        return out;
+                    });
+                    live.clear();
+                    live.putAll(current);
+                    records = written.size();
+                    readTo = journal.size();
+                    rewritesSeen = journal.rewrites();
+                    loaded = true;
+                    return null;
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.college.docs;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Small non-modal dialog showing a byte transfer: progress bar, MB/s and a Cancel button.
+ * update() may be called from any thread; repaints are coalesced to about ten per second.
+ */
+public class TransferProgressDialog extends JDialog {
+
+    private static final long serialVersionUID = 1L;
+    private static final long REPAINT_INTERVAL_NANOS = 100_000_000L;
+
+    private final JProgressBar bar = new JProgressBar(0, 1000);
+    private final JLabel rateLabel = new JLabel(" ");
+    private volatile boolean cancelled;
+    private volatile long lastUpdate;
+
+    public TransferProgressDialog(Window owner, String title, String fileName) {
+        super(owner, title, ModalityType.MODELESS);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+        panel.setBorder(BorderFactory.createEmptyBorder(12, 16, 12, 16));
+        JLabel nameLabel = new JLabel(fileName);
+        nameLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        panel.add(nameLabel, BorderLayout.NORTH);
+
+        bar.setStringPainted(true);
+        bar.setPreferredSize(new Dimension(420, 26));
+        panel.add(bar, BorderLayout.CENTER);
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            cancelled = true;
+            cancelButton.setEnabled(false);
+            rateLabel.setText("Cancelling...");
+        });
+        JPanel south = new JPanel(new BorderLayout());
+        rateLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        south.add(rateLabel, BorderLayout.CENTER);
+        south.add(cancelButton, BorderLayout.EAST);
+        panel.add(south, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void update(long done, long total, double megabytesPerSecond) {
+        long now = System.nanoTime();
+        if (done < total && now - lastUpdate < REPAINT_INTERVAL_NANOS) return;
+        lastUpdate = now;
+        SwingUtilities.invokeLater(() -> {
+            int permille = total <= 0 ? 1000 : (int) (done * 1000 / total);
+            bar.setValue(permille);
+            bar.setString(String.format("%.1f / %.1f MB", done / 1048576.0, total / 1048576.0));
+            if (!cancelled) rateLabel.setText(String.format("%.1f MB/s", megabytesPerSecond));
+        });
+    }
+
+    public void setStatus(String text) {
+        SwingUtilities.invokeLater(() -> rateLabel.setText(text));
+    }
+}
@@ -0,0 +1,138 @@
+package com.college.docs;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking work (JDBC, file I/O) off the Swing event thread for one window.
+ *
+ * Work executes on a virtual thread; its result or error is handed back on the EDT. While
+ * anything is running the window shows a wait cursor and the optional busy indicator. When
+ * the window is closed every running task is cancelled and late results are dropped.
+ */
+public class UiTasks {
+
+    /** Blocking piece of work producing a result. */
+    public interface Work<T> {
+        T call() throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Window window;
+    private final Set<Future<?>> running = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> closeHooks = new CopyOnWriteArrayList<>();
+    private JComponent busyIndicator;
+    private int busyCount; // EDT only
+    private volatile boolean closed;
+
+    public UiTasks(Window window) {
+        this.window = window;
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                close();
+            }
+        });
+    }
+
+    /** Shared executor for background work that is not tied to a window. */
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    /** Component made visible while tasks are running (e.g. an indeterminate progress bar). */
+    public void setBusyIndicator(JComponent indicator) {
+        this.busyIndicator = indicator;
+        indicator.setVisible(busyCount > 0);
+    }
+
+    /** Run something (e.g. stop a timer) when the window closes. */
+    public void onClose(Runnable hook) {
+        closeHooks.add(hook);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public <T> Future<?> run(Work<T> work, Consumer<T> onSuccess) {
+        return run(work, onSuccess, e -> e.printStackTrace());
+    }
+
+    /**
+     * Run work in the background, then call onSuccess or onError on the EDT
+     * (neither is called if the window has been closed in the meantime).
+     */
+    public <T> Future<?> run(Work<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        if (closed) return null;
+        onEdt(this::busyStart);
+        Object[] result = new Object[1];
+        Exception[] error = new Exception[1];
+        FutureTask<Void> task = new FutureTask<Void>(() -> {
+            try {
+                result[0] = work.call();
+            } catch (Exception e) {
+                error[0] = e;
+            }
+            return null;
+        }) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected void done() {
+                running.remove(this);
+                SwingUtilities.invokeLater(() -> {
+                    busyEnd();
+                    if (closed || isCancelled()) return;
+                    if (error[0] != null) onError.accept(error[0]);
+                    else onSuccess.accept((T) result[0]);
+                });
+            }
+        };
+        running.add(task);
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    public void cancelAll() {
+        for (Future<?> f : running) f.cancel(true);
+        running.clear();
+    }
+
+    private void close() {
+        if (closed) return;
+        closed = true;
+        cancelAll();
+        for (Runnable hook : closeHooks) hook.run();
+    }
+
+    private void busyStart() {
+        if (busyCount++ == 0) {
+            window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            if (busyIndicator != null) busyIndicator.setVisible(true);
+        }
+    }
+
+    private void busyEnd() {
+        if (busyCount > 0 && --busyCount == 0) {
+            window.setCursor(Cursor.getDefaultCursor());
+            if (busyIndicator != null) busyIndicator.setVisible(false);
+        }
+    }
+
+    private static void onEdt(Runnable r) {
+        if (SwingUtilities.isEventDispatchThread()) r.run();
+        else SwingUtilities.invokeLater(r);
+    }
+}
@@ -0,0 +1,147 @@
+package com.college.docs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Single-pass upload: the source is read once through a large direct buffer, hashed with
+ * SHA-256 and written to a temp file in the target folder at the same time. The caller then
+ * either commits the temp file (atomic rename into place) or discards it, e.g. on duplicates.
+ */
+public class UploadPipeline {
+
+    private static final int BUFFER_SIZE = 1 << 20; // 1 MB
+    // files at least this large go through the resumable ChunkedUpload path
+    public static final long CHUNKED_THRESHOLD = 64L << 20;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** A fully written and hashed temp file waiting to be committed or discarded. */
+    public static class Staged {
+        public final Path tempFile;
+        public final String hash;
+        public final long bytes;
+        public final long nanos;
+
+        Staged(Path tempFile, String hash, long bytes, long nanos) {
+            this.tempFile = tempFile;
+            this.hash = hash;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+        }
+
+        /** Move the temp file to its final name, replacing what is there. */
+        public Path commit(Path destination) throws IOException {
+            Path parent = destination.getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try {
+                Files.move(tempFile, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return destination;
+        }
+
+        public void discard() {
+            try { Files.deleteIfExists(tempFile); } catch (IOException ignore) {}
+        }
+    }
+
+    /**
+     * Stage a file, using resumable chunks for large files.
+     * Progress and cancellation only apply to the chunked path.
+     */
+    public static Staged stage(Path source, Path targetDir, DownloadEngine.Progress progress,
+                               BooleanSupplier cancelled) throws IOException {
+        if (Files.size(source) < CHUNKED_THRESHOLD) return stage(source, targetDir);
+        try (Diagnostics.Span span = Diagnostics.transfer("upload (chunked)", source)) {
+            try {
+                Staged staged = ChunkedUpload.stage(source, targetDir, progress, cancelled);
+                span.bytes(staged.bytes);
+                return staged;
+            } catch (IOException | RuntimeException e) {
+                span.failed();
+                throw e;
+            }
+        }
+    }
+
+    /** Stream a file into a temp file inside targetDir, hashing it on the way. */
+    public static Staged stage(Path source, Path targetDir) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            return stage(in, targetDir);
+        }
+    }
+
+    /** Stream any channel (file, socket, request body) into a temp file inside targetDir. */
+    public static Staged stage(ReadableByteChannel in, Path targetDir) throws IOException {
+        Files.createDirectories(targetDir);
+        Path tmp = Files.createTempFile(targetDir, ".upload-", ".part");
+        long start = System.nanoTime();
+        long total = 0;
+        MessageDigest digest = sha256();
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (Diagnostics.Span span = Diagnostics.transfer("upload", tmp)) {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (in.read(buf) != -1) {
+                    buf.flip();
+                    // the digest consumes a duplicate so the original buffer can still be written out
+                    digest.update(buf.duplicate());
+                    while (buf.hasRemaining()) total += out.write(buf);
+                    buf.clear();
+                }
+            } catch (IOException | RuntimeException e) {
+                span.failed();
+                Files.deleteIfExists(tmp);
+                throw e;
+            } finally {
+                span.bytes(total);
+            }
+        }
+        return new Staged(tmp, toHex(digest.digest()), total, System.nanoTime() - start);
+    }
+
+    /** SHA-256 of a file as lowercase hex, without keeping a copy. */
+    public static String sha256Hex(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (in.read(buf) != -1) {
+                buf.flip();
+                digest.update(buf);
+                buf.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
@@ -8,7 +8,6 @@ import java.awt.*;
 // java.awt.event imports are used fully-qualified in listeners; avoid unused-import warnings
 import java.io.*;
 import java.nio.file.*;
-import java.security.*;
 import java.sql.*;
 // Image IO handled via ImageIcon path-based loading; explicit ImageIO/BufferedImage imports removed
 
@@ -23,30 +22,38 @@ public class UserDashboard extends JFrame {
     private JButton downloadButton;
     private JLabel userApprovedLabel;
     private JLabel userRejectedLabel;
+    private final UiTasks tasks = new UiTasks(this);
+    private final java.util.Map<Integer, String> rowHashes = new java.util.HashMap<>(); // id -> hash_value, for download verification
+    private final java.util.Map<Integer, Integer> rowIndex = new java.util.HashMap<>(); // id -> model row
+    private final DeltaTracker delta;
+    private boolean deltaRunning; // EDT only; one load/refresh at a time
+    private boolean refreshQueued;
+    private int approvedCount;
+    private int rejectedCount;
+    private static final int REFRESH_INTERVAL_MS = 15000;
 
     public UserDashboard(String email) {
         this.userEmail = email;
+        this.delta = new DeltaTracker("user_email=?", email);
 
         setTitle("User Dashboard - Documents");
         setExtendedState(JFrame.MAXIMIZED_BOTH);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        // Ensure programmatic background and document overlay exist and set background as content pane
-        ImagePlaceholderGenerator.generateBackgroundIfMissing("resources/background.jpg");
-        ImagePlaceholderGenerator.generateIfMissing("resources/document.png");
+        // Background and document overlay are generated if missing (off the EDT); background is the content pane
         try {
-            ImageIcon bgIcon = new ImageIcon("resources/background.jpg");
             Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
-            Image bg = bgIcon.getImage().getScaledInstance(screen.width, screen.height, Image.SCALE_SMOOTH);
-            JLabel background = new JLabel(new ImageIcon(bg));
+            // decoded and scaled once per process; shown as soon as it is ready (see ImageAssets)
+            JLabel background = new JLabel();
+            ImagePlaceholderGenerator.bind(background, "resources/background.jpg", screen.width, screen.height);
             background.setLayout(new BorderLayout());
 
             // Prepare right-side overlay: document image + white stats box
             try {
-                ImageIcon docIcon = new ImageIcon("resources/document.png");
-                int docW = (int) (screen.width * 0.28);
-                int docH = (int) (screen.height * 0.56);
-                Image doc = docIcon.getImage().getScaledInstance(docW, docH, Image.SCALE_SMOOTH);
-                JLabel docLabel = new JLabel(new ImageIcon(doc));
+                Dimension docSize = documentImageSize(screen);
+                int docW = docSize.width;
+                int docH = docSize.height;
+                JLabel docLabel = new JLabel();
+                ImagePlaceholderGenerator.bind(docLabel, "resources/document.png", docW, docH);
                 docLabel.setOpaque(false);
 
                 JPanel eastPanel = new JPanel(new BorderLayout());
@@ -205,6 +212,11 @@ public class UserDashboard extends JFrame {
 
         buttonPanel.add(uploadButton);
         buttonPanel.add(downloadButton);
+        JProgressBar busyBar = new JProgressBar();
+        busyBar.setIndeterminate(true);
+        busyBar.setPreferredSize(new Dimension(140, 20));
+        buttonPanel.add(busyBar);
+        tasks.setBusyIndicator(busyBar);
         add(buttonPanel, BorderLayout.SOUTH);
 
         // Button actions
@@ -222,50 +234,132 @@ public class UserDashboard extends JFrame {
         });
 
         loadDocuments();
+        // pick up review decisions while the window is open
+        javax.swing.Timer refreshTimer = new javax.swing.Timer(REFRESH_INTERVAL_MS, ev -> refreshDocuments());
+        refreshTimer.start();
+        tasks.onClose(refreshTimer::stop);
     }
 
-    private void loadDocuments() {
-        try {
-            Connection con = DBConnection.getConnection();
-            String sql = "SELECT id, filename, file_path, status, uploaded_at FROM documents WHERE user_email=?";
-            PreparedStatement pst = con.prepareStatement(sql);
-            pst.setString(1, userEmail);
-            ResultSet rs = pst.executeQuery();
+    private static Dimension documentImageSize(Dimension screen) {
+        return new Dimension((int) (screen.width * 0.28), (int) (screen.height * 0.56));
+    }
+
+    /** Decode and scale this window's images ahead of time, e.g. while the user logs in. */
+    static void prefetchImages() {
+        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        Dimension doc = documentImageSize(screen);
+        ImageAssets.prefetch("resources/background.jpg", screen.width, screen.height);
+        ImageAssets.prefetch("resources/document.png", doc.width, doc.height);
+    }
+
+    // Rows for the table, built off the EDT
+    private static final class UserDocuments {
+        final java.util.List<Object[]> rows = new java.util.ArrayList<>();
+        final java.util.Map<Integer, String> hashes = new java.util.HashMap<>();
+    }
 
+    // Full load, once per window; later changes arrive through refreshDocuments()
+    private void loadDocuments() {
+        deltaRunning = true;
+        tasks.run(() -> {
+            // mark first so nothing that changes during the load is missed by the next delta
+            delta.prime();
+            UserDocuments docs = new UserDocuments();
+            for (DocumentRow d : DocumentService.listForUser(userEmail)) {
+                docs.rows.add(new Object[]{d.id, d.filename, d.filePath, AssignmentStore.getAssignedAdmin(d.id), d.status, d.uploadedAt});
+                docs.hashes.put(d.id, d.hashValue);
+            }
+            return docs;
+        }, docs -> {
+            deltaRunning = false;
             tableModel.setRowCount(0);
-            int approvedCount = 0;
-            int rejectedCount = 0;
-            while (rs.next()) {
-                String assigned = AssignmentStore.getAssignedAdmin(rs.getInt("id"));
-                Object[] row = {
-                    rs.getInt("id"),
-                    rs.getString("filename"),
-                    rs.getString("file_path"),
-                    assigned,
-                    rs.getString("status"),
-                    rs.getTimestamp("uploaded_at")
-                };
+            rowIndex.clear();
+            approvedCount = 0;
+            rejectedCount = 0;
+            for (Object[] row : docs.rows) {
+                rowIndex.put((Integer) row[0], tableModel.getRowCount());
                 tableModel.addRow(row);
-
-                // Notify user if status changed
-                String status = rs.getString("status");
-                if (!status.equalsIgnoreCase("PENDING")) {
-                    JOptionPane.showMessageDialog(this,
-                            "Document \"" + rs.getString("filename") + "\" has been " + status + "!");
-                }
-                if (status.equalsIgnoreCase("APPROVED")) approvedCount++;
-                else if (status.equalsIgnoreCase("REJECTED")) rejectedCount++;
+                countStatus((String) row[4], 1);
             }
-
-            // update user stats
-            userApprovedLabel.setText(formatUserStatText("APPROVED", approvedCount));
-            userRejectedLabel.setText(formatUserStatText("REJECTED", rejectedCount));
-        } catch (SQLException e) {
+            rowHashes.clear();
+            rowHashes.putAll(docs.hashes);
+            updateUserStats();
+            if (refreshQueued) refreshDocuments();
+        }, e -> {
+            deltaRunning = false;
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading documents!");
+        });
+    }
+
+    // Changed rows plus their assignments, looked up off the EDT
+    private static final class Changes {
+        final java.util.List<DocumentRow> rows;
+        final java.util.Map<Integer, String> assigned = new java.util.HashMap<>();
+
+        Changes(java.util.List<DocumentRow> rows) {
+            this.rows = rows;
         }
     }
 
+    // Fetch only rows added or changed since the last load/refresh and patch them in place
+    private void refreshDocuments() {
+        if (deltaRunning) {
+            refreshQueued = true;
+            return;
+        }
+        deltaRunning = true;
+        refreshQueued = false;
+        tasks.run(() -> {
+            Changes c = new Changes(delta.poll());
+            for (DocumentRow d : c.rows) c.assigned.put(d.id, AssignmentStore.getAssignedAdmin(d.id));
+            return c;
+        }, c -> {
+            deltaRunning = false;
+            java.util.List<DocumentRow> changed = c.rows;
+            java.util.Map<Integer, String> assigned = c.assigned;
+            java.util.List<String> notices = new java.util.ArrayList<>();
+            for (DocumentRow d : changed) {
+                rowHashes.put(d.id, d.hashValue);
+                Integer index = rowIndex.get(d.id);
+                if (index == null) {
+                    rowIndex.put(d.id, tableModel.getRowCount());
+                    tableModel.addRow(new Object[]{d.id, d.filename, d.filePath, assigned.get(d.id), d.status, d.uploadedAt});
+                    countStatus(d.status, 1);
+                    continue;
+                }
+                String before = (String) tableModel.getValueAt(index, 4);
+                tableModel.setValueAt(d.filePath, index, 2);
+                tableModel.setValueAt(assigned.get(d.id), index, 3);
+                if (d.status != null && !d.status.equalsIgnoreCase(before)) {
+                    tableModel.setValueAt(d.status, index, 4);
+                    countStatus(before, -1);
+                    countStatus(d.status, 1);
+                    // Notify the user only when a decision was actually made
+                    if (!d.status.equalsIgnoreCase("PENDING")) {
+                        notices.add("Document \"" + d.filename + "\" has been " + d.status + "!");
+                    }
+                }
+            }
+            updateUserStats();
+            if (refreshQueued) refreshDocuments();
+            if (!notices.isEmpty()) JOptionPane.showMessageDialog(this, String.join("\n", notices));
+        }, e -> {
+            deltaRunning = false;
+            e.printStackTrace(); // the next refresh tries again
+        });
+    }
+
+    private void countStatus(String status, int delta) {
+        if ("APPROVED".equalsIgnoreCase(status)) approvedCount += delta;
+        else if ("REJECTED".equalsIgnoreCase(status)) rejectedCount += delta;
+    }
+
+    private void updateUserStats() {
+        userApprovedLabel.setText(formatUserStatText("APPROVED", approvedCount));
+        userRejectedLabel.setText(formatUserStatText("REJECTED", rejectedCount));
+    }
+
     private JLabel createUserStatLabel(String title, int value, Color bg) {
         JLabel label = new JLabel(formatUserStatText(title, value));
         label.setOpaque(true);
@@ -286,61 +380,80 @@ public class UserDashboard extends JFrame {
         if (option != JFileChooser.APPROVE_OPTION) return;
 
         File selectedFile = fileChooser.getSelectedFile();
-        try {
-            String hash = calculateFileHash(selectedFile);
-
-            Connection con = DBConnection.getConnection();
-            String checkSql = "SELECT * FROM documents WHERE hash_value=?";
-            PreparedStatement checkStmt = con.prepareStatement(checkSql);
-            checkStmt.setString(1, hash);
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next()) {
+        uploadButton.setEnabled(false);
+        // large files are uploaded in resumable chunks; show progress for those
+        TransferProgressDialog progress = selectedFile.length() >= UploadPipeline.CHUNKED_THRESHOLD
+                ? new TransferProgressDialog(this, "Uploading", selectedFile.getName()) : null;
+        if (progress != null) progress.setVisible(true);
+        tasks.run(() -> storeUpload(selectedFile, progress), result -> {
+            uploadButton.setEnabled(true);
+            if (progress != null) progress.dispose();
+            if (result.duplicate) {
                 JOptionPane.showMessageDialog(this, "⚠ This document already exists!");
                 return;
             }
-
-            // Save file
-            File folder = new File("uploaded_docs");
-            if (!folder.exists()) folder.mkdir();
-            Path destination = Paths.get(folder.getAbsolutePath(), selectedFile.getName());
-            Files.copy(selectedFile.toPath(), destination, StandardCopyOption.REPLACE_EXISTING);
-
-            // Insert DB record and retrieve generated ID
-            String insertSql = "INSERT INTO documents (user_email, filename, file_path, hash_value, status) VALUES (?, ?, ?, ?, 'PENDING')";
-            PreparedStatement pst = con.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
-            pst.setString(1, userEmail);
-            pst.setString(2, selectedFile.getName());
-            pst.setString(3, destination.toString());
-            pst.setString(4, hash);
-            pst.executeUpdate();
-            ResultSet gk = pst.getGeneratedKeys();
-            int docId = -1;
-            if (gk != null && gk.next()) docId = gk.getInt(1);
-
-            JOptionPane.showMessageDialog(this, "✅ Document uploaded successfully!");
-            // Ask the user to choose an admin to verify this document
-            try {
-                PreparedStatement pstAdmins = con.prepareStatement("SELECT email FROM users WHERE role='ADMIN'");
-                ResultSet rsAdmins = pstAdmins.executeQuery();
-                java.util.List<String> admins = new java.util.ArrayList<>();
-                while (rsAdmins.next()) admins.add(rsAdmins.getString("email"));
-                if (!admins.isEmpty() && docId != -1) {
-                    JComboBox<String> combo = new JComboBox<>(admins.toArray(new String[0]));
-                    combo.setSelectedIndex(0);
-                    int resp = JOptionPane.showConfirmDialog(this, combo, "Assign admin to verify this document:", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
-                    if (resp == JOptionPane.OK_OPTION) {
-                        String assigned = (String) combo.getSelectedItem();
-                        AssignmentStore.setAssignedAdmin(docId, assigned);
-                    }
-                }
-            } catch (Exception ignore) {
+            JOptionPane.showMessageDialog(this, String.format("✅ Document uploaded successfully! (%.1f MB/s)", result.megabytesPerSecond));
+            askAssignedAdmin(result);
+        }, e -> {
+            uploadButton.setEnabled(true);
+            if (progress != null) progress.dispose();
+            if (e instanceof DownloadEngine.CancelledException) {
+                JOptionPane.showMessageDialog(this, "Upload paused. Choose the same file again to resume where it stopped.");
+                return;
             }
-            loadDocuments();
-
-        } catch (Exception e) {
             e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error uploading document!");
+            JOptionPane.showMessageDialog(this, "Error uploading document! Choose the same file again to resume.");
+        });
+    }
+
+    // Result of the background part of an upload
+    private static final class UploadResult {
+        boolean duplicate;
+        int docId = -1;
+        double megabytesPerSecond;
+        final java.util.List<String> admins = new java.util.ArrayList<>();
+    }
+
+    // Hash + copy in one pass, then de-duplicate and insert; runs off the EDT
+    private UploadResult storeUpload(File selectedFile, TransferProgressDialog progress) throws Exception {
+        DocumentService.Upload upload = progress == null
+                ? DocumentService.upload(userEmail, selectedFile.toPath(), selectedFile.getName(), null, null)
+                : DocumentService.upload(userEmail, selectedFile.toPath(), selectedFile.getName(), progress::update, progress::isCancelled);
+        UploadResult result = new UploadResult();
+        result.duplicate = upload.duplicate;
+        result.docId = upload.docId;
+        result.megabytesPerSecond = upload.megabytesPerSecond;
+        if (result.duplicate) return result;
+        try {
+            result.admins.addAll(DocumentService.adminEmails());
+        } catch (SQLException ignore) {
+        }
+        return result;
+    }
+
+    // Ask the user to choose an admin to verify this document
+    private void askAssignedAdmin(UploadResult result) {
+        if (!result.admins.isEmpty() && result.docId != -1) {
+            JComboBox<String> combo = new JComboBox<>(result.admins.toArray(new String[0]));
+            combo.setSelectedIndex(0);
+            int resp = JOptionPane.showConfirmDialog(this, combo, "Assign admin to verify this document:", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if (resp == JOptionPane.OK_OPTION) {
+                String assigned = (String) combo.getSelectedItem();
+                tasks.run(() -> {
+                    DocumentService.assign(result.docId, userEmail, assigned);
+                    return null;
+                }, ignored -> {
+                    Integer index = rowIndex.get(result.docId);
+                    if (index != null) tableModel.setValueAt(assigned, index, 3);
+                    refreshDocuments();
+                }, e -> {
+                    e.printStackTrace();
+                    refreshDocuments();
+                });
+                return;
+            }
         }
+        refreshDocuments();
     }
 
     private void downloadDocument() {
@@ -357,42 +470,46 @@ public class UserDashboard extends JFrame {
         }
 
         String filePath = (String) table.getValueAt(selectedRow, 2);
+        String filename = (String) table.getValueAt(selectedRow, 1);
+        Object idObj = table.getValueAt(selectedRow, 0);
+        String expectedHash = idObj instanceof Number ? rowHashes.get(((Number) idObj).intValue()) : null;
         File sourceFile = new File(filePath);
-        if (!sourceFile.exists()) {
-            JOptionPane.showMessageDialog(this, "File not found on server!");
-            return;
-        }
+        // the blob may be on a slow share; check it off the EDT
+        tasks.run(sourceFile::exists, exists -> {
+            if (!exists) {
+                JOptionPane.showMessageDialog(this, "File not found on server!");
+                return;
+            }
+            saveDownload(sourceFile, filename, expectedHash);
+        });
+    }
 
+    private void saveDownload(File sourceFile, String filename, String expectedHash) {
         JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setSelectedFile(new File(sourceFile.getName()));
+        // stored blobs are named by hash; offer the original filename
+        fileChooser.setSelectedFile(new File(filename != null ? filename : sourceFile.getName()));
         int option = fileChooser.showSaveDialog(this);
         if (option != JFileChooser.APPROVE_OPTION) return;
 
         File destFile = fileChooser.getSelectedFile();
-        try {
-            Files.copy(sourceFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            JOptionPane.showMessageDialog(this, "✅ File downloaded successfully!");
-        } catch (IOException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error downloading file!");
-        }
-    }
-
-    private String calculateFileHash(File file) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        FileInputStream fis = new FileInputStream(file);
-        byte[] byteArray = new byte[1024];
-        int bytesCount;
-
-        while ((bytesCount = fis.read(byteArray)) != -1) {
-            digest.update(byteArray, 0, bytesCount);
-        }
-        fis.close();
-
-        byte[] bytes = digest.digest();
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) sb.append(String.format("%02x", b));
-        return sb.toString();
+        TransferProgressDialog progress = new TransferProgressDialog(this, "Downloading", destFile.getName());
+        progress.setVisible(true);
+        tasks.run(() -> DownloadEngine.download(sourceFile.toPath(), destFile.toPath(), expectedHash,
+                        progress::update, progress::isCancelled),
+                mbps -> {
+                    progress.dispose();
+                    JOptionPane.showMessageDialog(this, String.format("✅ File downloaded successfully! (%.1f MB/s)", mbps));
+                },
+                e -> {
+                    progress.dispose();
+                    if (e instanceof DownloadEngine.CancelledException) return;
+                    e.printStackTrace();
+                    if (e instanceof DownloadEngine.VerificationException) {
+                        JOptionPane.showMessageDialog(this, "⚠ " + e.getMessage() + ". The download was discarded.");
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error downloading file!");
+                    }
+                });
     }
 
     public static void main(String[] args) {
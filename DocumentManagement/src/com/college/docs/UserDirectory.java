@@ -0,0 +1,120 @@
+package com.college.docs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached view of the users table (email and role only), shared by every screen that needs the
+ * admin list or the super-admin.
+ *
+ * One query loads everything; the copy is reused for {@link #TTL_MS} or until
+ * {@link #invalidate()} is called, e.g. after a registration. Concurrent misses wait for a
+ * single reload instead of each querying the database.
+ */
+public class UserDirectory {
+
+    public static final long TTL_MS = 60_000;
+    private static final String PREFERRED_SUPER_ADMIN = "admin@example.com";
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong LOADS = new AtomicLong();
+    private static volatile Snapshot snapshot;
+
+    private static final class Snapshot {
+        final Map<String, String> roles;   // lower-case email -> role
+        final List<String> admins;         // sorted case-insensitively
+        final String superAdmin;           // null when there are no admins
+        final long loadedAt = System.currentTimeMillis();
+
+        Snapshot(Map<String, String> roles, List<String> admins) {
+            this.roles = roles;
+            this.admins = admins;
+            String preferred = null;
+            for (String a : admins) {
+                if (a.equalsIgnoreCase(PREFERRED_SUPER_ADMIN)) preferred = a;
+            }
+            this.superAdmin = preferred != null ? preferred : (admins.isEmpty() ? null : admins.get(0));
+        }
+
+        boolean fresh() {
+            return System.currentTimeMillis() - loadedAt < TTL_MS;
+        }
+    }
+
+    /** Emails of all ADMIN accounts, sorted case-insensitively. */
+    public static List<String> adminEmails() throws SQLException {
+        return current().admins;
+    }
+
+    /**
+     * The admin allowed to manage verifications: admin@example.com when that account is an
+     * admin, otherwise the first admin by email. Null when there are no admins.
+     */
+    public static String superAdminEmail() throws SQLException {
+        return current().superAdmin;
+    }
+
+    /** Role of the given account, or null if it is not registered. */
+    public static String roleOf(String email) throws SQLException {
+        return email == null ? null : current().roles.get(email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /** Drop the cached copy so the next lookup reloads it. */
+    public static void invalidate() {
+        snapshot = null;
+    }
+
+    /** Hit/miss counters for diagnostics. */
+    public static String stats() {
+        long h = HITS.get(), m = MISSES.get();
+        return String.format("user directory: %d hits, %d misses (%.0f%% hit rate), %d loads",
+                h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), LOADS.get());
+    }
+
+    private static Snapshot current() throws SQLException {
+        Snapshot s = snapshot;
+        if (s != null && s.fresh()) {
+            HITS.incrementAndGet();
+            return s;
+        }
+        MISSES.incrementAndGet();
+        synchronized (UserDirectory.class) {
+            s = snapshot;
+            if (s != null && s.fresh()) return s; // another thread reloaded while we waited
+            s = load();
+            snapshot = s;
+            return s;
+        }
+    }
+
+    private static Snapshot load() throws SQLException {
+        LOADS.incrementAndGet();
+        Map<String, String> roles = new HashMap<>();
+        List<String> admins = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection()) {
+            if (con == null) throw new SQLException("No database connection");
+            try (PreparedStatement pst = con.prepareStatement("SELECT email, role FROM users");
+                 ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    String email = rs.getString("email");
+                    String role = rs.getString("role");
+                    if (email == null) continue;
+                    roles.put(email.trim().toLowerCase(Locale.ROOT), role);
+                    if ("ADMIN".equalsIgnoreCase(role)) admins.add(email);
+                }
+            }
+        }
+        admins.sort(String.CASE_INSENSITIVE_ORDER);
+        return new Snapshot(Collections.unmodifiableMap(roles), Collections.unmodifiableList(admins));
+    }
+}
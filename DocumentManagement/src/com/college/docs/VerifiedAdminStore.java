@@ -2,52 +2,99 @@ package com.college.docs;
 
 import java.io.*;
 import java.nio.file.*;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Verified admin emails, persisted through a {@link KeyValueStore} (by default
+ * resources/verified_admins.txt, one email per line, "-email" removing one).
+ *
+ * The set is held as an immutable snapshot. It is re-read only when the backend's version
+ * changes (checked at most once per second, so edits by hand or by another client are picked
+ * up), or every few seconds for backends without a version, and replaced copy-on-write by
+ * addVerified/removeVerified.
+ */
 public class VerifiedAdminStore {
-    private static final Path STORE = Paths.get("resources", "verified_admins.txt");
+    private static final KeyValueStore BACKEND = KeyValueStore.open("verified_admins",
+            Paths.get("resources", "verified_admins.txt"), TextKeyValueStore.Format.KEYS_ONLY);
+    private static final long CHECK_INTERVAL_MS = 1000;
+    private static final long UNVERSIONED_RELOAD_MS = 15_000;
 
-    private static void ensureStoreExists() throws IOException {
-        Path parent = STORE.getParent();
-        if (parent != null && !Files.exists(parent)) Files.createDirectories(parent);
-        if (!Files.exists(STORE)) Files.createFile(STORE);
+    private static volatile Set<String> snapshot;
+    private static volatile long stamp = Long.MIN_VALUE;
+    private static volatile long lastCheck;
+    private static volatile long lastLoad;
+
+    private static Set<String> current() {
+        Set<String> set = snapshot;
+        long now = System.currentTimeMillis();
+        if (set != null && now - lastCheck < CHECK_INTERVAL_MS) return set;
+        synchronized (VerifiedAdminStore.class) {
+            if (snapshot != null && now - lastCheck < CHECK_INTERVAL_MS) return snapshot;
+            lastCheck = now;
+            try {
+                long version = BACKEND.version();
+                boolean stale = version < 0 ? now - lastLoad >= UNVERSIONED_RELOAD_MS : version != stamp;
+                if (snapshot == null || stale) {
+                    snapshot = read();
+                    stamp = version; // read before the data, so a write in between forces another load
+                    lastLoad = now;
+                }
+            } catch (IOException e) {
+                if (snapshot == null) snapshot = Set.of();
+            }
+            return snapshot;
+        }
     }
 
-    public static synchronized Set<String> listVerified() {
-        try {
-            ensureStoreExists();
-            List<String> lines = Files.readAllLines(STORE).stream()
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
-            return new HashSet<>(lines);
-        } catch (Exception e) {
-            return new HashSet<>();
+    private static Set<String> read() throws IOException {
+        Set<String> set = new HashSet<>();
+        for (String key : BACKEND.loadAll().keySet()) {
+            String s = key.trim().toLowerCase();
+            if (!s.isEmpty()) set.add(s);
         }
+        return Set.copyOf(set);
+    }
+
+    /** Immutable snapshot of the verified emails. */
+    public static Set<String> listVerified() {
+        return current();
     }
 
-    public static synchronized boolean isVerified(String email) {
+    public static boolean isVerified(String email) {
         if (email == null) return false;
-        Set<String> set = listVerified();
-        return set.contains(email.trim().toLowerCase());
+        return current().contains(email.trim().toLowerCase());
     }
 
-    public static synchronized void addVerified(String email) throws IOException {
+    public static void addVerified(String email) throws IOException {
         if (email == null || email.trim().isEmpty()) return;
-        Set<String> set = listVerified();
-        if (set.add(email.trim().toLowerCase())) {
-            Files.write(STORE, (set.stream().collect(Collectors.joining(System.lineSeparator())) + System.lineSeparator()).getBytes());
-        }
+        setVerified(Collections.singletonMap(email, true));
     }
 
-    public static synchronized void removeVerified(String email) throws IOException {
+    public static void removeVerified(String email) throws IOException {
         if (email == null || email.trim().isEmpty()) return;
-        Set<String> set = listVerified();
-        if (set.remove(email.trim().toLowerCase())) {
-            Files.write(STORE, (set.stream().collect(Collectors.joining(System.lineSeparator())) + System.lineSeparator()).getBytes());
+        setVerified(Collections.singletonMap(email, false));
+    }
+
+    /** Verify (true) or unverify (false) several emails with one write. */
+    public static synchronized void setVerified(Map<String, Boolean> changes) throws IOException {
+        Set<String> set = new HashSet<>(current());
+        Map<String, String> batch = new HashMap<>(changes.size() * 2);
+        for (Map.Entry<String, Boolean> e : changes.entrySet()) {
+            if (e.getKey() == null || e.getKey().trim().isEmpty()) continue;
+            String email = e.getKey().trim().toLowerCase();
+            // written even if the snapshot agrees: it may be missing another client's change
+            if (Boolean.TRUE.equals(e.getValue())) set.add(email);
+            else set.remove(email);
+            batch.put(email, Boolean.TRUE.equals(e.getValue()) ? "" : null);
         }
+        if (batch.isEmpty()) return;
+        BACKEND.putAll(batch);
+        // shown at once; the stamp is left alone so the next check reloads other clients' changes too
+        snapshot = Set.copyOf(set);
+        lastCheck = System.currentTimeMillis();
     }
 }